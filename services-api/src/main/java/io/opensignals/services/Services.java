@@ -19,6 +19,7 @@ package io.opensignals.services;
 import io.opensignals.services.spi.ServicesProvider;
 import io.opensignals.services.spi.ServicesProviderFactory;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Member;
 import java.security.PrivilegedAction;
 import java.util.*;
@@ -336,6 +337,45 @@ public final class Services {
   }
 
 
+  /*
+   * Wraps a subscriber so that it is only passed those services
+   * named by the prefix or by any one of its descendants.
+   */
+
+  private static < T extends Phenomenon > Subscriber< T > scoped (
+    final Name prefix,
+    final Subscriber< T > subscriber
+  ) {
+
+    requireNonNull ( prefix );
+    requireNonNull ( subscriber );
+
+    return
+      ( name, registrar ) -> {
+
+        for (
+          Optional< Name > node = Optional.of ( name );
+          node.isPresent ();
+          node = node.get ().getPrefix ()
+        ) {
+
+          if ( node.get ().equals ( prefix ) ) {
+
+            subscriber.accept (
+              name,
+              registrar
+            );
+
+            return;
+
+          }
+
+        }
+
+      };
+
+  }
+
   /**
    * Returns the default {@link Context}.
    *
@@ -2626,6 +2666,150 @@ public final class Services {
 
     Stream< Service > services ();
 
+    /**
+     * Re-reads the scoring configuration from the {@link Environment} of this context,
+     * with the configuration applied to each of the previously registered services on
+     * its next scoring, and without any loss of their status.
+     * <p>
+     * The default implementation does nothing, as a provider need not support the
+     * reloading of its configuration.
+     */
+
+    default void refresh () {}
+
+    /**
+     * Returns the rolled-up status of the services under the prefix, being the most severe
+     * status of the services named beneath the prefix, including any service named by the
+     * prefix itself, or {@link Status#NONE} if there are no such services.
+     * <p>
+     * The default implementation scans all of the services of this context, with a provider
+     * free to maintain the roll-up incrementally.
+     *
+     * @param prefix the name prefix of the services rolled up
+     * @return The most severe status of the services under the prefix
+     */
+
+    default Status status (
+      final Name prefix
+    ) {
+
+      requireNonNull (
+        prefix
+      );
+
+      return
+        services ()
+          .filter (
+            service -> {
+
+              Optional< Name > name =
+                Optional.of (
+                  service.getName ()
+                );
+
+              while ( name.isPresent () ) {
+
+                if ( name.get ().equals ( prefix ) )
+                  return true;
+
+                name =
+                  name.get ().getPrefix ();
+
+              }
+
+              return
+                false;
+
+            }
+          )
+          .map ( Service::getStatus )
+          .max ( Comparator.naturalOrder () )
+          .orElse ( Status.NONE );
+
+    }
+
+    /**
+     * Returns the number of changes discarded in being dispatched to the subscribers of the
+     * {@link Signal} or {@link Status} updates of this context, as happens when dispatching
+     * asynchronously and a subscriber falls behind, with {@link Phenomenon} returning those
+     * discarded in being dispatched to the subscribers of both.
+     * <p>
+     * The default implementation returns zero, as a provider need not dispatch asynchronously.
+     *
+     * @param type the phenomenon class type of either {@link Signal}, {@link Status} or {@link Phenomenon}
+     * @return The number of changes of the type discarded since the creation of this context
+     */
+
+    default long overflows (
+      final Class< ? extends Phenomenon > type
+    ) {
+
+      requireNonNull (
+        type
+      );
+
+      return
+        0L;
+
+    }
+
+    /**
+     * Returns the number of changes, counted within the {@link #overflows(Class) overflows},
+     * skipped by the sampling of the changes dispatched once a subscriber falls behind,
+     * and so not dropped as a result of a subscriber having no space left for a change.
+     * <p>
+     * The default implementation returns zero, as a provider need not sample changes.
+     *
+     * @param type the phenomenon class type of either {@link Signal}, {@link Status} or {@link Phenomenon}
+     * @return The number of changes of the type skipped since the creation of this context
+     */
+
+    default long skipped (
+      final Class< ? extends Phenomenon > type
+    ) {
+
+      requireNonNull (
+        type
+      );
+
+      return
+        0L;
+
+    }
+
+    /**
+     * Returns the number of services evicted from this context, as happens when a provider
+     * evicts the services left unused for a configured period of time.
+     * <p>
+     * The default implementation returns zero, as a provider need not evict services.
+     *
+     * @return The number of services evicted since the creation of this context
+     */
+
+    default long evictions () {
+
+      return
+        0L;
+
+    }
+
+    /**
+     * Returns the number of lookups of a service routed to an overflow service, as happens
+     * when a provider limits the number of services of this context and a name would exceed
+     * the limit, with a name counted on each of its lookups.
+     * <p>
+     * The default implementation returns zero, as a provider need not limit services.
+     *
+     * @return The number of lookups rejected since the creation of this context
+     */
+
+    default long rejections () {
+
+      return
+        0L;
+
+    }
+
 
     /**
      * Adds a {@link Subscriber} to receive signal and status updates.
@@ -2652,6 +2836,164 @@ public final class Services {
       Class< T > type
     );
 
+
+    /**
+     * Adds a {@link Subscriber} to receive only those {@link Signal} or {@link Status} updates
+     * with a value contained within the specified set.
+     * <p>
+     * The default implementation filters within each callback. An SPI implementation
+     * is expected to override this method and skip the subscriber altogether.
+     *
+     * @param subscriber the subscriber to registered
+     * @param type       the phenomenon class type of either {@link Signal} or {@link Status}
+     * @param filter     the set of values that are to be delivered to the subscriber
+     * @param <T>        the phenomenon class type
+     * @return The subscription used to control delivery of messages.
+     */
+
+    default < T extends Enum< T > & Phenomenon > Subscription subscribe (
+      final Subscriber< T > subscriber,
+      final Class< T > type,
+      final EnumSet< T > filter
+    ) {
+
+      requireNonNull ( subscriber );
+
+      final EnumSet< T > values =
+        EnumSet.copyOf (
+          filter
+        );
+
+      return
+        subscribe (
+          ( name, registrar ) ->
+            subscriber.accept (
+              name,
+              callback ->
+                registrar.accept (
+                  ( orientation, value ) -> {
+
+                    if ( values.contains ( value ) )
+                      callback.accept ( orientation, value );
+
+                  }
+                )
+            ),
+          type
+        );
+
+    }
+
+
+    /**
+     * Adds a {@link Subscriber} to receive signal and status updates for only those services
+     * named by the prefix or any of its descendants.
+     * <p>
+     * The default implementation filters on the first callback for each service.
+     * An SPI implementation is expected to override this method and index subscribers
+     * by their prefix.
+     *
+     * @param prefix     the name enclosing the services of interest
+     * @param subscriber the subscriber to registered
+     * @return The subscription used to control delivery of messages.
+     */
+
+    default Subscription subscribe (
+      final Name prefix,
+      final Subscriber< ? super Phenomenon > subscriber
+    ) {
+
+      return
+        subscribe (
+          scoped (
+            prefix,
+            subscriber
+          )
+        );
+
+    }
+
+
+    /**
+     * Adds a {@link Subscriber} to receive {@link Signal} or {@link Status} updates for only
+     * those services named by the prefix or any of its descendants.
+     *
+     * @param prefix     the name enclosing the services of interest
+     * @param subscriber the subscriber to registered
+     * @param type       the phenomenon class type of either {@link Signal} or {@link Status}
+     * @param <T>        the phenomenon class type
+     * @return The subscription used to control delivery of messages.
+     * @see #subscribe(Name, Subscriber)
+     */
+
+    default < T extends Phenomenon > Subscription subscribe (
+      final Name prefix,
+      final Subscriber< T > subscriber,
+      final Class< T > type
+    ) {
+
+      return
+        subscribe (
+          scoped (
+            prefix,
+            subscriber
+          ),
+          type
+        );
+
+    }
+
+
+    /**
+     * Adds a {@link BatchSubscriber} to receive {@link Signal} or {@link Status} updates in batches.
+     * <p>
+     * The default implementation delivers each update as a batch of one.
+     *
+     * @param subscriber the batch subscriber to be registered
+     * @param type       the phenomenon class type of either {@link Signal} or {@link Status}, or {@link Phenomenon} for both
+     * @param <T>        the phenomenon class type
+     * @return The subscription used to control delivery of messages.
+     */
+
+    @SuppressWarnings ( "unchecked" )
+    default < T extends Phenomenon > Subscription subscribe (
+      final BatchSubscriber< T > subscriber,
+      final Class< T > type
+    ) {
+
+      requireNonNull ( subscriber );
+
+      final Subscriber< T > adaptor =
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, value ) -> {
+
+              final T[] values =
+                (T[]) Array.newInstance (
+                  type,
+                  1
+                );
+
+              values[0] =
+                value;
+
+              subscriber.accept (
+                1,
+                new Name[]{name},
+                new Orientation[]{orientation},
+                values
+              );
+
+            }
+          );
+
+      return
+        type == Phenomenon.class
+        ? subscribe ( (Subscriber< Phenomenon >) adaptor )
+        : subscribe ( adaptor, type );
+
+    }
+
   }
 
   /**
@@ -3832,6 +4174,37 @@ public final class Services {
 
   }
 
+  /**
+   * An interface for receiving {@link Signal} and {@link Status} changes in batches.
+   * <p>
+   * A batch is passed as parallel arrays with the change at index {@code i} made up of
+   * {@code names[i]}, {@code orientations[i]} and {@code values[i]}, for {@code i < count}.
+   * The arrays are owned by the caller and are only valid for the duration of the call.
+   *
+   * @see Context#subscribe(BatchSubscriber, Class)
+   */
+
+  @FunctionalInterface
+  public interface BatchSubscriber< T extends Phenomenon > {
+
+    /**
+     * Called with one or more changes fired by any of the services within a {@link Context}.
+     *
+     * @param count        the number of changes in the batch
+     * @param names        the names of the services
+     * @param orientations the orientations of the changes
+     * @param values       the values changing
+     */
+
+    void accept (
+      int count,
+      Name[] names,
+      Orientation[] orientations,
+      T[] values
+    );
+
+  }
+
   /**
    * An interface used for unregistering interest in receiving {@link Signal} and {@link Status} changes.
    */
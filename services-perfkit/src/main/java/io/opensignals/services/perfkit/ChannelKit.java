@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.perfkit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+import static io.opensignals.services.Services.*;
+import static io.opensignals.services.Services.Signal.SUCCEED;
+
+/**
+ * The ChannelKit utility class for micro-benchmarking the dispatching
+ * of signals to a varying number of per-event or batch subscribers,
+ * as well as the churn of subscribing and cancelling.
+ *
+ * @author wlouth
+ * @since 1.0
+ */
+
+@SuppressWarnings (
+  {
+    "MethodMayBeStatic",
+    "PublicMethodNotExposedInInterface",
+    "squid:S00100",
+    "WeakerAccess"
+  }
+)
+@State ( Scope.Benchmark )
+public class ChannelKit {
+
+  private static final Subscriber< Signal > SUBSCRIBER =
+    ( name, registrar ) ->
+      registrar.accept (
+        PerfKit::callback
+      );
+
+  private static final BatchSubscriber< Signal > BATCH_SUBSCRIBER =
+    ChannelKit::batch;
+
+  private static final String SERVICE = "service";
+
+  @Param ( {"1", "8", "64"} )
+  public int subscribers;
+
+  @Param ( {"false", "true"} )
+  public boolean batched;
+
+  private Context context;
+  private Service service;
+
+  @SuppressWarnings ( "EmptyMethod" )
+  static void batch (
+    final int count,
+    final Name[] names,
+    final Orientation[] orientations,
+    final Signal[] values
+  ) {
+    // no overhead method
+  }
+
+  @Setup ( Level.Trial )
+  public final void setup ()
+  throws IOException {
+
+    context =
+      context (
+        PerfKit.profile ()
+      );
+
+    for (
+      int i = subscribers;
+      i > 0;
+      i--
+    ) {
+
+      if ( batched ) {
+
+        context.subscribe (
+          BATCH_SUBSCRIBER,
+          Signal.class
+        );
+
+      } else {
+
+        context.subscribe (
+          SUBSCRIBER,
+          Signal.class
+        );
+
+      }
+
+    }
+
+    service =
+      context.service (
+        SERVICE
+      );
+
+  }
+
+  /**
+   * Emit a {@code SUCCEED} signal.
+   */
+
+  @Benchmark
+  public void service_emit_succeed () {
+
+    service.emit (
+      SUCCEED
+    );
+
+  }
+
+  /**
+   * Subscribe to, and then cancel, all signals alongside the existing subscribers.
+   */
+
+  @Benchmark
+  public void context_subscribe_cancel () {
+
+    context.subscribe (
+      SUBSCRIBER,
+      Signal.class
+    ).cancel ();
+
+  }
+
+}
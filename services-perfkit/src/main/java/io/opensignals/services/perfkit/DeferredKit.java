@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.perfkit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+import static io.opensignals.services.Services.*;
+import static io.opensignals.services.Services.Signal.FAIL;
+import static io.opensignals.services.Services.Signal.SUCCEED;
+import static io.opensignals.services.Services.Status.DEFECTIVE;
+import static io.opensignals.services.Services.Status.OK;
+
+/**
+ * The DeferredKit utility class for micro-benchmarking the deferring of scoring
+ * to the evaluator thread, configured by {@code opensignals.services.service.score.deferred.cadence},
+ * trading the latency of a change of status for the throughput of signalling.
+ * <p>
+ * The EWMA engine is configured so that each signal moves the status, making the
+ * latency of a change of status observable by reading the status.
+ *
+ * @author wlouth
+ * @since 1.0
+ */
+
+@SuppressWarnings (
+  {
+    "MethodMayBeStatic",
+    "PublicMethodNotExposedInInterface",
+    "squid:S00100",
+    "WeakerAccess"
+  }
+)
+@State ( Scope.Benchmark )
+public class DeferredKit {
+
+  private static final String SERVICE   = "service";
+  private static final String CADENCE   = "opensignals.services.service.score.deferred.cadence";
+  private static final String ENGINE    = "opensignals.services.service.score.engine";
+  private static final String ALPHA     = "opensignals.services.service.score.ewma.alpha";
+  private static final String THRESHOLD = "opensignals.services.service.score.ewma.threshold";
+
+  @Param ( {"0", "1", "10"} )
+  public String cadence;
+
+  private Service service;
+
+  @Setup ( Level.Trial )
+  public final void setup ()
+  throws IOException {
+
+    service =
+      context (
+        PerfKit.profile ()
+          .environment ( environment ( name ( CADENCE ), cadence ) )
+          .environment ( environment ( name ( ENGINE ), "EWMA" ) )
+          .environment ( environment ( name ( ALPHA ), 1.0F ) )
+          .environment ( environment ( name ( THRESHOLD ), 0.0F ) )
+      ).service (
+        SERVICE
+      );
+
+  }
+
+  /**
+   * Emit a {@code SUCCEED} signal, not changing the status of the service.
+   */
+
+  @Benchmark
+  public void service_emit_succeed () {
+
+    service.emit (
+      SUCCEED
+    );
+
+  }
+
+  /**
+   * Emit a {@code FAIL} and then a {@code SUCCEED} signal, each changing the status
+   * of the service when scored inline.
+   */
+
+  @Benchmark
+  public void service_emit_fail_succeed () {
+
+    service.emit (
+      FAIL
+    );
+
+    service.emit (
+      SUCCEED
+    );
+
+  }
+
+  /**
+   * Emit a {@code FAIL} and then a {@code SUCCEED} signal, each time waiting on
+   * the change of status, measuring the latency of a round trip of the status.
+   */
+
+  @Benchmark
+  public void service_status_latency () {
+
+    service.emit (
+      FAIL
+    );
+
+    await (
+      DEFECTIVE
+    );
+
+    service.emit (
+      SUCCEED
+    );
+
+    await (
+      OK
+    );
+
+  }
+
+  private void await (
+    final Status status
+  ) {
+
+    while ( service.getStatus () != status ) {
+
+      //noinspection CallToThreadYield
+      Thread.yield ();
+
+    }
+
+  }
+
+}
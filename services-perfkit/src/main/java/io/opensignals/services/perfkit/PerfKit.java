@@ -114,9 +114,12 @@ public class PerfKit {
     // no overhead method
   }
 
-  @Setup ( Level.Trial )
-  public final void setup ()
-  throws NoSuchMethodException, IOException {
+  /**
+   * Loads the {@link Environment} of the profile specified by the {@code profile} system property.
+   */
+
+  static Environment profile ()
+  throws IOException {
 
     final Properties properties =
       new Properties ();
@@ -132,14 +135,23 @@ public class PerfKit {
       )
     );
 
+    return
+      environment (
+        path ->
+          properties.getProperty (
+            path.toString ()
+          )
+      );
+
+  }
+
+  @Setup ( Level.Trial )
+  public final void setup ()
+  throws NoSuchMethodException, IOException {
+
     context =
       context (
-        environment (
-          path ->
-            properties.getProperty (
-              path.toString ()
-            )
-        )
+        profile ()
       );
 
     context.subscribe (
@@ -17,11 +17,13 @@
 package io.opensignals.services.perfkit;
 
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.Profiler;
 import org.openjdk.jmh.results.AverageTimeResult;
 import org.openjdk.jmh.results.BenchmarkResult;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
@@ -65,7 +67,8 @@ final class PerfKitLauncher {
 
   }
 
-  private static Options options (
+  private static ChainedOptionsBuilder options (
+    final Class< ? > kit,
     final String spi,
     final String profile,
     final String pattern,
@@ -74,7 +77,7 @@ final class PerfKitLauncher {
 
     return
       new OptionsBuilder ()
-        .include ( PerfKit.class.getSimpleName () + "." + pattern )
+        .include ( kit.getSimpleName () + "." + pattern )
         .mode ( Mode.AverageTime )
         .timeUnit ( NANOSECONDS )
         .warmupTime ( WARMUP_TIME )
@@ -89,7 +92,7 @@ final class PerfKitLauncher {
           "-server",
           "-Dio.opensignals.services.spi.factory=" + spi,
           "-Dprofile=" + profile
-        ).build ();
+        );
 
   }
 
@@ -168,17 +171,89 @@ final class PerfKitLauncher {
     final Consumer< ? super String > consumer
   ) {
 
+    execute (
+      PerfKit.class,
+      spi,
+      profile,
+      pattern,
+      threads,
+      threshold,
+      consumer
+    );
+
+  }
+
+  static void execute (
+    final Class< ? > kit,
+    final String spi,
+    final String profile,
+    final String pattern,
+    final int threads,
+    final double threshold,
+    final Consumer< ? super String > consumer
+  ) {
+
+    execute (
+      spi,
+      options (
+        kit,
+        spi,
+        profile,
+        pattern,
+        threads
+      ).build (),
+      threshold,
+      consumer
+    );
+
+  }
+
+  /*
+   * Executes the benchmarks with a profiler, such as the GC profiler,
+   * reporting secondary results alongside the average time.
+   */
+
+  static void execute (
+    final Class< ? > kit,
+    final Class< ? extends Profiler > profiler,
+    final String spi,
+    final String profile,
+    final String pattern,
+    final int threads,
+    final double threshold,
+    final Consumer< ? super String > consumer
+  ) {
+
+    execute (
+      spi,
+      options (
+        kit,
+        spi,
+        profile,
+        pattern,
+        threads
+      ).addProfiler (
+        profiler
+      ).build (),
+      threshold,
+      consumer
+    );
+
+  }
+
+  private static void execute (
+    final String spi,
+    final Options options,
+    final double threshold,
+    final Consumer< ? super String > consumer
+  ) {
+
     try {
 
       inspect (
         spi,
         run (
-          options (
-            spi,
-            profile,
-            pattern,
-            threads
-          )
+          options
         ),
         threshold,
         consumer
@@ -196,4 +271,4 @@ final class PerfKitLauncher {
 
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.perfkit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+import static io.opensignals.services.Services.*;
+import static io.opensignals.services.Services.Signal.FAIL;
+import static io.opensignals.services.Services.Signal.SUCCEED;
+
+/**
+ * The ScoringKit utility class for micro-benchmarking each of the scoring
+ * engines, configured by {@code opensignals.services.service.score.engine},
+ * so that an engine can be chosen on its cost as well as its semantics.
+ *
+ * @author wlouth
+ * @since 1.0
+ */
+
+@SuppressWarnings (
+  {
+    "MethodMayBeStatic",
+    "PublicMethodNotExposedInInterface",
+    "squid:S00100",
+    "WeakerAccess"
+  }
+)
+@State ( Scope.Benchmark )
+public class ScoringKit {
+
+  private static final String SERVICE = "service";
+  private static final String ENGINE  = "opensignals.services.service.score.engine";
+
+  @Param ( {"ADDITIVE", "EWMA", "WINDOW", "RATE", "BUCKET"} )
+  public String engine;
+
+  private Service service;
+
+  @Setup ( Level.Trial )
+  public final void setup ()
+  throws IOException {
+
+    service =
+      context (
+        PerfKit.profile ()
+          .environment (
+            environment (
+              name ( ENGINE ),
+              engine
+            )
+          )
+      ).service (
+        SERVICE
+      );
+
+  }
+
+  /**
+   * Emit a {@code SUCCEED} signal, scoring the current status of the service.
+   */
+
+  @Benchmark
+  public void service_emit_succeed () {
+
+    service.emit (
+      SUCCEED
+    );
+
+  }
+
+  /**
+   * Emit a {@code FAIL} and then a {@code SUCCEED} signal, each scoring a status
+   * other than the current status, and so possibly changing the status.
+   */
+
+  @Benchmark
+  public void service_emit_fail_succeed () {
+
+    service.emit (
+      FAIL
+    );
+
+    service.emit (
+      SUCCEED
+    );
+
+  }
+
+  /**
+   * Read the status of the service, evaluating any time-based change.
+   */
+
+  @Benchmark
+  public Status service_status () {
+
+    return
+      service.getStatus ();
+
+  }
+
+}
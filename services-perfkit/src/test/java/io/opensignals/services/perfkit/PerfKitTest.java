@@ -21,6 +21,7 @@ import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.openjdk.jmh.profile.GCProfiler;
 
 import static io.opensignals.services.perfkit.PerfKitLauncher.execute;
 
@@ -31,7 +32,12 @@ final class PerfKitTest {
 
   private static final String FACTORY    = "io.opensignals.services.ext.spi.alpha.ProviderFactory";
   private static final String ALPHA      = "alpha";
+  private static final String RING       = "ring";
   private static final String CONCURRENT = "service_";
+  private static final String CHURN      = "context_";
+  private static final String SUCCEED    = "service_emit_succeed$";
+  private static final String SCORING    = "service_";
+  private static final String DEFERRED   = "service_emit_";
   private static final String ALL        = "*";
 
   @Test
@@ -79,4 +85,117 @@ final class PerfKitTest {
 
   }
 
+  @Test
+  @Order ( 5 )
+  void ring_subscribers () {
+
+    execute (
+      ChannelKit.class,
+      FACTORY,
+      RING,
+      CONCURRENT,
+      1,
+      1000.0,
+      Assertions::fail
+    );
+
+  }
+
+  @Test
+  @Order ( 6 )
+  void alpha_churn () {
+
+    execute (
+      ChannelKit.class,
+      FACTORY,
+      ALPHA,
+      CHURN,
+      1,
+      1000.0,
+      Assertions::fail
+    );
+
+  }
+
+  @Test
+  @Order ( 7 )
+  void alpha_gc () {
+
+    execute (
+      PerfKit.class,
+      GCProfiler.class,
+      FACTORY,
+      ALPHA,
+      SUCCEED,
+      1,
+      250.0,
+      Assertions::fail
+    );
+
+  }
+
+  @Test
+  @Order ( 8 )
+  void alpha_contended () {
+
+    // one shared service with the allowed
+    // latency growing with the threads
+
+    for (
+      int threads = 1;
+      threads <= 64;
+      threads <<= 3
+    ) {
+
+      execute (
+        FACTORY,
+        ALPHA,
+        SUCCEED,
+        threads,
+        250.0 * threads,
+        Assertions::fail
+      );
+
+    }
+
+  }
+
+  @Test
+  @Order ( 9 )
+  void alpha_scoring () {
+
+    // the window engine scans all of its
+    // buckets on evaluating the status
+
+    execute (
+      ScoringKit.class,
+      FACTORY,
+      ALPHA,
+      SCORING,
+      1,
+      500.0,
+      Assertions::fail
+    );
+
+  }
+
+  @Test
+  @Order ( 10 )
+  void alpha_deferred () {
+
+    // only the signalling is measured as the latency
+    // of a change of status is bounded by the cadence
+
+    execute (
+      DeferredKit.class,
+      FACTORY,
+      ALPHA,
+      DEFERRED,
+      1,
+      250.0,
+      Assertions::fail
+    );
+
+  }
+
 }
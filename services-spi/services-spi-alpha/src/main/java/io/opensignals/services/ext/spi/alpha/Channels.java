@@ -16,13 +16,28 @@
 
 package io.opensignals.services.ext.spi.alpha;
 
+import io.opensignals.services.Services.BatchSubscriber;
+import io.opensignals.services.Services.Environment;
 import io.opensignals.services.Services.Orientation;
 import io.opensignals.services.Services.Phenomenon;
+import io.opensignals.services.Services.Status;
 import io.opensignals.services.Services.Subscriber;
 import io.opensignals.services.Services.Subscription;
 import io.opensignals.services.ext.spi.alpha.Sinks.Sink;
+import io.opensignals.services.ext.spi.alpha.Variables.Variable;
 
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author wlouth
@@ -31,53 +46,2594 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 final class Channels {
 
+  private static final Names.Name CHANNEL =
+    Names.root ( Strings.OPENSIGNALS )
+      .node ( Strings.SERVICES )
+      .node ( Strings.CHANNEL );
+
+  private static final Variable< Type > TYPE =
+    Variables.of (
+      CHANNEL.node (
+        Strings.TYPE
+      ),
+      Type.class,
+      Type.MEMORY
+    );
+
+  private static final Variable< Integer > CAPACITY =
+    Variables.of (
+      CHANNEL.node (
+        Strings.CAPACITY
+      ),
+      1024
+    );
+
+  private static final Variable< Integer > THREADS =
+    Variables.of (
+      CHANNEL.node (
+        Strings.THREADS
+      ),
+      1
+    );
+
+  // without a configured policy a ring blocks
+  // and a mailbox drops the newest change
+
+  private static final Variable< Policy > POLICY =
+    Variables.of (
+      CHANNEL.node (
+        Strings.POLICY
+      ),
+      Policy.class,
+      null
+    );
+
+  private static final Variable< Boolean > CONFLATE =
+    Variables.of (
+      CHANNEL.node (
+        Strings.CONFLATE
+      ),
+      true
+    );
+
+  private static final Variable< Integer > SAMPLE =
+    Variables.of (
+      CHANNEL.node (
+        Strings.SAMPLE
+      ),
+      10
+    );
+
   private Channels () {}
 
-  static < T extends Phenomenon > Channel< T > memory () {
+  /**
+   * Creates a channel of the type configured by {@code opensignals.services.channel.type}
+   * within the environment, defaulting to {@link Type#MEMORY}.
+   *
+   * @param environment the environment used for resolving the channel configuration
+   * @param type        the class of phenomenon dispatched by the channel
+   * @param scope       the scope within which the subscriptions are given slots
+   * @param <T>         the type of phenomenon
+   * @return A new channel as configured by the environment
+   */
+
+  static < T extends Phenomenon > Channel< T > channel (
+    final Environment environment,
+    final Class< T > type,
+    final Subscribers.Scope scope
+  ) {
+
+    // status is state so when dispatched asynchronously
+    // only the latest status of a service need be passed
+
+    final boolean conflate =
+      type == Status.class &&
+        CONFLATE.of ( environment );
+
+    switch ( TYPE.of ( environment ) ) {
+
+      case RING:
+        return
+          conflate
+          ? conflated (
+            type,
+            CAPACITY.of ( environment ),
+            THREADS.of ( environment ),
+            policy ( environment, Policy.BLOCK ),
+            SAMPLE.of ( environment ),
+            scope
+          )
+          : ring (
+            type,
+            CAPACITY.of ( environment ),
+            THREADS.of ( environment ),
+            policy ( environment, Policy.BLOCK ),
+            SAMPLE.of ( environment ),
+            scope
+          );
+
+      case MAILBOX:
+        return
+          new Mailboxes<> (
+            type,
+            CAPACITY.of ( environment ),
+            policy ( environment, Policy.DROP_NEWEST ),
+            SAMPLE.of ( environment ),
+            conflate,
+            scope
+          );
+
+      default:
+        return
+          new Memory<> (
+            type,
+            scope
+          );
+
+    }
+
+  }
+
+  private static Policy policy (
+    final Environment environment,
+    final Policy defVal
+  ) {
+
+    final Policy policy =
+      POLICY.of (
+        environment
+      );
+
+    return
+      policy != null
+      ? policy
+      : defVal;
+
+  }
+
+  static < T extends Phenomenon > Channel< T > memory (
+    final Class< T > type
+  ) {
+
+    return
+      new Memory<> (
+        type,
+        Subscribers.Scope.NONE
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > ring (
+    final Class< T > type,
+    final int capacity
+  ) {
+
+    return
+      ring (
+        type,
+        capacity,
+        1
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > ring (
+    final Class< T > type,
+    final int capacity,
+    final int threads
+  ) {
+
+    return
+      ring (
+        type,
+        capacity,
+        threads,
+        Policy.BLOCK,
+        1
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > ring (
+    final Class< T > type,
+    final int capacity,
+    final int threads,
+    final Policy policy,
+    final int sample
+  ) {
+
+    return
+      ring (
+        type,
+        capacity,
+        threads,
+        policy,
+        sample,
+        Subscribers.Scope.NONE
+      );
+
+  }
+
+  private static < T extends Phenomenon > Channel< T > ring (
+    final Class< T > type,
+    final int capacity,
+    final int threads,
+    final Policy policy,
+    final int sample,
+    final Subscribers.Scope scope
+  ) {
+
+    final Ring< T > ring =
+      new Ring<> (
+        type,
+        capacity,
+        policy,
+        sample,
+        new Overflows (),
+        scope
+      );
+
+    for (
+      int i = Math.max ( threads, 1 );
+      i > 0;
+      i--
+    ) {
+
+      Dispatcher.start (
+        ring
+      );
+
+    }
+
+    return
+      ring;
+
+  }
+
+  static < T extends Phenomenon > Channel< T > mailbox (
+    final Class< T > type,
+    final int capacity
+  ) {
+
+    return
+      mailbox (
+        type,
+        capacity,
+        Policy.DROP_NEWEST,
+        1
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > mailbox (
+    final Class< T > type,
+    final int capacity,
+    final Policy policy,
+    final int sample
+  ) {
+
+    return
+      new Mailboxes<> (
+        type,
+        capacity,
+        policy,
+        sample,
+        false,
+        Subscribers.Scope.NONE
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > conflated (
+    final Class< T > type
+  ) {
+
+    return
+      conflated (
+        type,
+        1024,
+        1,
+        Policy.BLOCK,
+        1
+      );
+
+  }
+
+  static < T extends Phenomenon > Channel< T > conflated (
+    final Class< T > type,
+    final int capacity,
+    final int threads,
+    final Policy policy,
+    final int sample
+  ) {
 
     return
-      new Memory<> ();
+      conflated (
+        type,
+        capacity,
+        threads,
+        policy,
+        sample,
+        Subscribers.Scope.NONE
+      );
+
+  }
+
+  private static < T extends Phenomenon > Channel< T > conflated (
+    final Class< T > type,
+    final int capacity,
+    final int threads,
+    final Policy policy,
+    final int sample,
+    final Subscribers.Scope scope
+  ) {
+
+    return
+      new Conflated<> (
+        type,
+        capacity,
+        threads,
+        policy,
+        sample,
+        scope
+      );
+
+  }
+
+  /**
+   * The dispatching strategy used by a channel.
+   */
+
+  enum Type {
+
+    /**
+     * Dispatch within the thread calling the channel.
+     */
+
+    MEMORY,
+
+    /**
+     * Dispatch from one or more background threads draining a bounded ring buffer.
+     */
+
+    RING,
+
+    /**
+     * Dispatch to each subscriber from its own thread, a virtual thread where
+     * supported by the runtime, draining a bounded per-subscriber mailbox.
+     */
+
+    MAILBOX
+
+  }
+
+  /**
+   * The backpressure policy applied by an asynchronous channel when its buffer, a ring
+   * or a mailbox, is full, with each change discarded counted as an overflow.
+   */
+
+  enum Policy {
+
+    /**
+     * Wait, within the thread firing the change, until space is freed, other than within
+     * a thread draining the buffer, which would wait on itself, and so instead discards
+     * the change being published.
+     */
+
+    BLOCK {
+      @Override
+      < T extends Phenomenon > void publish (
+        final Buffer< T > buffer,
+        final Names.Name name,
+        final Orientation orientation,
+        final T value
+      ) {
+
+        while ( !buffer.offer ( name, orientation, value ) ) {
+
+          // a closed buffer is no longer drained
+
+          if ( buffer.closed () )
+            return;
+
+          // a subscriber firing a change from within
+          // the dispatcher cannot wait on its own drain
+
+          if ( buffer.draining () ) {
+
+            buffer.drop ();
+
+            return;
+
+          }
+
+          //noinspection CallToThreadYield
+          Thread.yield ();
+
+        }
+
+      }
+    },
+
+    /**
+     * Discard the change being published.
+     */
+
+    DROP_NEWEST {
+      @Override
+      < T extends Phenomenon > void publish (
+        final Buffer< T > buffer,
+        final Names.Name name,
+        final Orientation orientation,
+        final T value
+      ) {
+
+        if ( !buffer.offer ( name, orientation, value ) )
+          buffer.drop ();
+
+      }
+    },
+
+    /**
+     * Discard the oldest change not yet dispatched to make space for the change being published.
+     */
+
+    DROP_OLDEST {
+      @Override
+      < T extends Phenomenon > void publish (
+        final Buffer< T > buffer,
+        final Names.Name name,
+        final Orientation orientation,
+        final T value
+      ) {
+
+        while ( !buffer.offer ( name, orientation, value ) ) {
+
+          if ( buffer.evict () )
+            buffer.drop ();
+
+        }
+
+      }
+    },
+
+    /**
+     * Publish only one in every n changes once the buffer is over half full,
+     * with n configured by {@code opensignals.services.channel.sample},
+     * discarding the change being published when the buffer is full.
+     */
+
+    SAMPLE {
+      @Override
+      < T extends Phenomenon > void publish (
+        final Buffer< T > buffer,
+        final Names.Name name,
+        final Orientation orientation,
+        final T value
+      ) {
+
+        if ( buffer.pressured () && !buffer.sampled () )
+          buffer.skip ();
+
+        else if ( !buffer.offer ( name, orientation, value ) )
+          buffer.drop ();
+
+      }
+    };
+
+    abstract < T extends Phenomenon > void publish (
+      Buffer< T > buffer,
+      Names.Name name,
+      Orientation orientation,
+      T value
+    );
+
+  }
+
+  /**
+   * A bounded buffer, a ring or a conflator, to which a {@link Policy} is applied.
+   */
+
+  interface Buffer< T extends Phenomenon > {
+
+    /**
+     * Publishes the change unless the buffer is full.
+     *
+     * @param name        the name of the service
+     * @param orientation the orientation of the change
+     * @param value       the phenomenon value
+     * @return true if the change was published
+     */
+
+    boolean offer ( Names.Name name, Orientation orientation, T value );
+
+    /**
+     * Discards the oldest change not yet dispatched.
+     *
+     * @return false if the buffer was emptied in the meantime
+     */
+
+    boolean evict ();
+
+    /**
+     * Counts a change dropped on the buffer being full.
+     */
+
+    void drop ();
+
+    /**
+     * Counts a change skipped by sampling.
+     */
+
+    void skip ();
+
+    /**
+     * Returns true when the buffer is more than half full.
+     *
+     * @return true if pressured
+     */
+
+    boolean pressured ();
+
+    /**
+     * Returns true for one in every n calls.
+     *
+     * @return true if sampled
+     */
+
+    boolean sampled ();
+
+    /**
+     * Returns true once the buffer is no longer drained.
+     *
+     * @return true if closed
+     */
+
+    boolean closed ();
+
+    /**
+     * Returns true when called from a thread draining the buffer.
+     *
+     * @return true if called from a dispatcher of the buffer
+     */
+
+    boolean draining ();
+
+  }
+
+  /**
+   * The counts of the changes discarded by the backpressure policy of a channel, shared
+   * across the mailboxes of a channel, with a change either dropped on the buffer being full,
+   * whether the newest or the oldest, or skipped by sampling.
+   */
+
+  static final class Overflows {
+
+    final LongAdder dropped = new LongAdder ();
+    final LongAdder skipped = new LongAdder ();
+
+    long sum () {
+
+      return
+        dropped.sum () + skipped.sum ();
+
+    }
+
+  }
+
+  /**
+   * Represents a channel for dispatching and receiving (via subscription) service changes.
+   *
+   * @param <T> the type of phenomenon.
+   */
+
+  interface Channel< T extends Phenomenon > extends Sink< T > {
+
+    /**
+     * Adds a {@link Subscriber} to a channel.
+     *
+     * @param subscriber the subscriber to be registered with the channel
+     * @return A subscription representation this particular subscription call.
+     */
+
+    Subscription subscribe ( Subscriber< ? super T > subscriber );
+
+    /**
+     * Adds a {@link Subscriber} to a channel that is only passed those values within the mask.
+     *
+     * @param subscriber the subscriber to be registered with the channel
+     * @param mask       the bitmask, indexed by ordinal, of the values of interest
+     * @return A subscription representation this particular subscription call.
+     * @see Sinks#mask(Iterable)
+     */
+
+    Subscription subscribe ( Subscriber< ? super T > subscriber, int mask );
+
+    /**
+     * Adds a {@link Subscriber} to a channel that is only passed the changes of those
+     * services named by the prefix or any of its descendants.
+     *
+     * @param prefix     the name enclosing the services of interest
+     * @param subscriber the subscriber to be registered with the channel
+     * @return A subscription representation this particular subscription call.
+     */
+
+    Subscription subscribe ( Names.Name prefix, Subscriber< ? super T > subscriber );
+
+    /**
+     * Adds a {@link BatchSubscriber} to a channel.
+     *
+     * @param subscriber the batch subscriber to be registered with the channel
+     * @return A subscription representation this particular subscription call.
+     */
+
+    Subscription subscribe ( BatchSubscriber< ? super T > subscriber );
+
+    /**
+     * Returns the number of changes discarded by the backpressure policy of the channel.
+     *
+     * @return The number of changes discarded, which is always zero for a synchronous channel.
+     * @see Policy
+     */
+
+    default long overflows () {
+
+      return
+        0L;
+
+    }
+
+    /**
+     * Returns the number of changes skipped, rather than dropped on the buffer being full,
+     * by the sampling of the {@link Policy#SAMPLE} policy, counted within the overflows.
+     *
+     * @return The number of changes skipped, which is always zero for a synchronous channel.
+     */
+
+    default long skipped () {
+
+      return
+        0L;
+
+    }
+
+  }
+
+  /**
+   * An implementation of the {@link Channel} interface that performs all event dispatching
+   * immediately and within the same thread generating the event.
+   *
+   * @param <T> The type of {@link Phenomenon}
+   */
+
+  static final class Memory< T extends Phenomenon >
+    implements Channel< T > {
+
+    private final    Class< T >                  type;
+    private final    Subscribers.Scope           scope;
+    private final    Subscriptions.Registry< T > registry;
+    private volatile boolean                     scoped;
+
+    // the subscriptions scoped to a prefix, with a prefix
+    // removed once its last subscription is cancelled
+    private final ConcurrentHashMap< Names.Name, Subscriptions.Registry< T > > prefixes =
+      new ConcurrentHashMap<> ();
+
+    Memory (
+      final Class< T > type,
+      final Subscribers.Scope scope
+    ) {
+
+      this.type =
+        type;
+
+      this.scope =
+        scope;
+
+      registry =
+        Subscriptions.registry ();
+
+    }
+
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      registry.accept (
+        name,
+        orientation,
+        value
+      );
+
+      if ( scoped ) {
+
+        dispatch (
+          name,
+          orientation,
+          value
+        );
+
+      }
+
+    }
+
+    @Override
+    public void accept (
+      final int count,
+      final Names.Name[] names,
+      final Orientation[] orientations,
+      final T[] values
+    ) {
+
+      registry.accept (
+        count,
+        names,
+        orientations,
+        values
+      );
+
+      if ( scoped ) {
+
+        for ( int i = 0; i < count; i++ ) {
+
+          dispatch (
+            names[i],
+            orientations[i],
+            values[i]
+          );
+
+        }
+
+      }
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        subscribe (
+          Subscribers.sink (
+            subscriber,
+            scope
+          ),
+          Sinks.ALL
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber,
+      final int mask
+    ) {
+
+      return
+        subscribe (
+          Subscribers.sink (
+            subscriber,
+            scope
+          ),
+          mask
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Names.Name prefix,
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        subscribe (
+          prefix,
+          Subscribers.sink (
+            subscriber,
+            scope
+          )
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final BatchSubscriber< ? super T > subscriber
+    ) {
+
+      return
+        subscribe (
+          Subscribers.sink (
+            subscriber,
+            type
+          ),
+          Sinks.ALL
+        );
+
+    }
+
+    Subscription subscribe (
+      final Sink< ? super T > sink,
+      final int mask
+    ) {
+
+      return
+        registry.add (
+          sink,
+          mask
+        );
+
+    }
+
+    Subscription subscribe (
+      final Names.Name prefix,
+      final Sink< ? super T > sink
+    ) {
+
+      // the add is within the lock so that the registry
+      // cannot be vacated before holding the subscription
+
+      synchronized ( prefixes ) {
+
+        final Subscriptions.Registry< T > registry =
+          prefixes.computeIfAbsent (
+            prefix,
+            key ->
+              Subscriptions.registry (
+                () -> vacate ( key )
+              )
+          );
+
+        scoped =
+          true;
+
+        return
+          registry.add (
+            sink
+          );
+
+      }
+
+    }
+
+    /*
+     * Removes the registry of the prefix if still without subscriptions.
+     */
+
+    private void vacate (
+      final Names.Name prefix
+    ) {
+
+      synchronized ( prefixes ) {
+
+        final Subscriptions.Registry< T > registry =
+          prefixes.get (
+            prefix
+          );
+
+        if ( registry != null && registry.isEmpty () ) {
+
+          prefixes.remove (
+            prefix
+          );
+
+          scoped =
+            !prefixes.isEmpty ();
+
+        }
+
+      }
+
+    }
+
+    /*
+     * Returns true if any subscriber is possibly interested in the value.
+     */
+
+    boolean accepts (
+      final T value
+    ) {
+
+      return
+        scoped ||
+          registry.accepts (
+            value
+          );
+
+    }
+
+    /*
+     * Walks up from the name through its ancestors dispatching
+     * to the subscriptions scoped to each enclosing name so that
+     * the cost is bound by the depth of the name and not by the
+     * number of scoped subscriptions across the entire tree.
+     */
+
+    private void dispatch (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      for (
+        Names.Name node = name;
+        node != null;
+        node = node.left ()
+      ) {
+
+        final Subscriptions.Registry< T > registry =
+          prefixes.get (
+            node
+          );
+
+        if ( registry != null ) {
+
+          registry.accept (
+            name,
+            orientation,
+            value
+          );
+
+        }
+
+      }
+
+    }
+
+  }
+
+  /**
+   * An implementation of the {@link Channel} interface that publishes events into a bounded,
+   * preallocated ring buffer, with one or more {@link Dispatcher} threads draining events
+   * to subscribers. A producer claims a slot with a single CAS on the tail sequence and
+   * only ever waits when the buffer is full.
+   * <p>
+   * Event ordering is only preserved when a single dispatcher thread drains the ring.
+   *
+   * @param <T> The type of {@link Phenomenon}
+   */
+
+  static final class Ring< T extends Phenomenon >
+    extends Head
+    implements Channel< T >, Source< T >, Buffer< T > {
+
+    private static final AtomicLongFieldUpdater< Tail > TAIL =
+      AtomicLongFieldUpdater.newUpdater (
+        Tail.class,
+        "tail"
+      );
+
+    private static final AtomicLongFieldUpdater< Head > HEAD =
+      AtomicLongFieldUpdater.newUpdater (
+        Head.class,
+        "head"
+      );
+
+    // subscription management and the actual
+    // dispatching is delegated to a memory channel
+    // executing within the dispatcher thread(s)
+
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicLongFieldUpdater< Ring > SAMPLES =
+      AtomicLongFieldUpdater.newUpdater (
+        Ring.class,
+        "samples"
+      );
+
+    private final    Class< T >   type;
+    private final    Memory< T >  memory;
+    private final    Event< T >[] events;
+    private final    int          mask;
+    private final    Policy       policy;
+    private final    int          sample;
+    private final    Overflows    overflows;
+    private final    Waiters      waiters;
+    private volatile long         samples;
+    private volatile boolean      closed;
+
+    Ring (
+      final Class< T > type,
+      final int capacity
+    ) {
+
+      this (
+        type,
+        capacity,
+        Policy.BLOCK,
+        1,
+        new Overflows ()
+      );
+
+    }
+
+    Ring (
+      final Class< T > type,
+      final int capacity,
+      final Policy policy,
+      final int sample,
+      final Overflows overflows
+    ) {
+
+      this (
+        type,
+        capacity,
+        policy,
+        sample,
+        overflows,
+        Subscribers.Scope.NONE
+      );
+
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    Ring (
+      final Class< T > type,
+      final int capacity,
+      final Policy policy,
+      final int sample,
+      final Overflows overflows,
+      final Subscribers.Scope scope
+    ) {
+
+      this.type =
+        type;
+
+      this.policy =
+        policy;
+
+      this.sample =
+        Math.max (
+          sample,
+          1
+        );
+
+      this.overflows =
+        overflows;
+
+      waiters =
+        new Waiters ();
+
+      memory =
+        new Memory<> (
+          type,
+          scope
+        );
+
+      final int size =
+        Integer.highestOneBit (
+          Math.max (
+            capacity - 1,
+            1
+          )
+        ) << 1;
+
+      events =
+        (Event< T >[]) new Event< ? >[size];
+
+      for (
+        int i = size - 1;
+        i >= 0;
+        i--
+      ) {
+
+        //noinspection ObjectAllocationInLoop
+        events[i] =
+          new Event<> (
+            i
+          );
+
+      }
+
+      mask =
+        size - 1;
+
+    }
+
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      // nothing is published when
+      // no subscriber is interested
+
+      if ( !memory.accepts ( value ) )
+        return;
+
+      policy.publish (
+        this,
+        name,
+        orientation,
+        value
+      );
+
+    }
+
+    @Override
+    public long overflows () {
+
+      return
+        overflows.sum ();
+
+    }
+
+    @Override
+    public long skipped () {
+
+      return
+        overflows.skipped.sum ();
+
+    }
+
+    @Override
+    public void drop () {
+
+      overflows.dropped.increment ();
+
+    }
+
+    @Override
+    public void skip () {
+
+      overflows.skipped.increment ();
+
+    }
+
+    /*
+     * Returns true when the ring is more than half full.
+     */
+
+    @Override
+    public boolean pressured () {
+
+      return
+        tail - head > ( mask + 1 ) >> 1;
+
+    }
+
+    /*
+     * Returns true for one in every n calls.
+     */
+
+    @Override
+    public boolean sampled () {
+
+      return
+        SAMPLES.incrementAndGet ( this ) % sample == 0L;
+
+    }
+
+    @Override
+    public boolean closed () {
+
+      return
+        closed;
+
+    }
+
+    @Override
+    public boolean draining () {
+
+      return
+        waiters.enlisted (
+          Thread.currentThread ()
+        );
+
+    }
+
+    /*
+     * Discards the event at the head of the ring, returning
+     * false if the ring was emptied in the meantime.
+     */
+
+    @Override
+    public boolean evict () {
+
+      final Event< T >[] events =
+        this.events;
+
+      long position =
+        head;
+
+      for ( ; ; ) {
+
+        final Event< T > event =
+          events[(int) position & mask];
+
+        final long delta =
+          event.sequence - ( position + 1L );
+
+        if ( delta == 0L ) {
+
+          if ( HEAD.compareAndSet ( this, position, position + 1L ) ) {
+
+            event.name =
+              null;
+
+            event.orientation =
+              null;
+
+            event.value =
+              null;
+
+            event.publish (
+              position + events.length
+            );
+
+            return
+              true;
+
+          }
+
+        } else if ( delta < 0L ) {
+
+          return
+            false;
+
+        }
+
+        position =
+          head;
+
+      }
+
+    }
+
+    /*
+     * Publishes the event into the ring, returning false
+     * without waiting when the ring is currently full.
+     */
+
+    @Override
+    public boolean offer (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      final Event< T >[] events =
+        this.events;
+
+      long position =
+        tail;
+
+      for ( ; ; ) {
+
+        final Event< T > event =
+          events[(int) position & mask];
+
+        final long delta =
+          event.sequence - position;
+
+        if ( delta == 0L ) {
+
+          if ( TAIL.compareAndSet ( this, position, position + 1L ) ) {
+
+            event.name =
+              name;
+
+            event.orientation =
+              orientation;
+
+            event.value =
+              value;
+
+            event.publish (
+              position + 1L
+            );
+
+            waiters.wake ();
+
+            return
+              true;
+
+          }
+
+        } else if ( delta < 0L ) {
+
+          return
+            false;
+
+        }
+
+        position =
+          tail;
+
+      }
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber,
+      final int mask
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber,
+          mask
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Names.Name prefix,
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          prefix,
+          subscriber
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final BatchSubscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber
+        );
+
+    }
+
+    /*
+     * Attaches a sink directly, rather than via a subscriber,
+     * to be passed the events drained from this ring.
+     */
+
+    Subscription attach (
+      final Sink< ? super T > sink
+    ) {
+
+      return
+        memory.subscribe (
+          sink,
+          Sinks.ALL
+        );
+
+    }
+
+    /*
+     * Stops the dispatcher(s) on their next drain with
+     * any events remaining in the ring being discarded.
+     */
+
+    @Override
+    public void close () {
+
+      closed =
+        true;
+
+      waiters.release ();
+
+    }
+
+    @Override
+    public Waiters waiters () {
+
+      return
+        waiters;
+
+    }
+
+    /*
+     * Returns true if an event has been claimed and not yet drained,
+     * with the tail read after the parking of a dispatcher has been
+     * announced, as the tail is moved before a producer checks for it.
+     */
+
+    @Override
+    public boolean pending () {
+
+      return
+        tail != head;
+
+    }
+
+    @Override
+    public Chunk< T > chunk (
+      final int size
+    ) {
+
+      return
+        new Chunk<> (
+          type,
+          size
+        );
+
+    }
+
+    /*
+     * Drains events from the head of the ring into the
+     * chunk, dispatching the chunk to the subscribers.
+     */
+
+    @Override
+    public int drain (
+      final Chunk< T > chunk
+    ) {
+
+      final Event< T >[] events =
+        this.events;
+
+      final int size =
+        events.length;
+
+      final Names.Name[] names =
+        chunk.names;
+
+      final Orientation[] orientations =
+        chunk.orientations;
+
+      final T[] values =
+        chunk.values;
+
+      if ( closed )
+        return -1;
+
+      final int limit =
+        names.length;
+
+      int count = 0;
+
+      long position =
+        head;
+
+      while ( count < limit ) {
+
+        final Event< T > event =
+          events[(int) position & mask];
+
+        final long delta =
+          event.sequence - ( position + 1L );
+
+        if ( delta == 0L ) {
+
+          if ( HEAD.compareAndSet ( this, position, position + 1L ) ) {
+
+            names[count] =
+              event.name;
+
+            orientations[count] =
+              event.orientation;
+
+            values[count] =
+              event.value;
+
+            event.name =
+              null;
+
+            event.orientation =
+              null;
+
+            event.value =
+              null;
+
+            event.publish (
+              position + size
+            );
+
+            count++;
+
+          }
+
+        } else if ( delta < 0L ) {
+
+          break;
+
+        }
+
+        position =
+          head;
+
+      }
+
+      if ( count > 0 ) {
+
+        memory.accept (
+          count,
+          names,
+          orientations,
+          values
+        );
+
+      }
+
+      return
+        count;
+
+    }
+
+  }
+
+  /*
+   * The tail (producer) and head (consumer) sequences of a ring are
+   * padded onto separate cache lines using the field layout of a class
+   * hierarchy, preventing false sharing between producers and dispatchers.
+   */
+
+  @SuppressWarnings ( "unused" )
+  private abstract static class Front {
+
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+
+  }
+
+  private abstract static class Tail
+    extends Front {
+
+    volatile long tail;
+
+  }
+
+  @SuppressWarnings ( "unused" )
+  private abstract static class Middle
+    extends Tail {
+
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+  }
+
+  private abstract static class Head
+    extends Middle {
+
+    volatile long head;
+
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+
+  }
+
+  /**
+   * A preallocated slot within a {@link Ring} with the sequence
+   * indicating whether it is free to be written or read.
+   */
+
+  private static final class Event< T extends Phenomenon > {
+
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicLongFieldUpdater< Event > SEQUENCE =
+      AtomicLongFieldUpdater.newUpdater (
+        Event.class,
+        "sequence"
+      );
+
+    volatile long sequence;
+    Names.Name    name;
+    Orientation   orientation;
+    T             value;
+
+    Event (
+      final long sequence
+    ) {
+
+      this.sequence =
+        sequence;
+
+    }
+
+    void publish (
+      final long sequence
+    ) {
+
+      SEQUENCE.lazySet (
+        this,
+        sequence
+      );
+
+    }
+
+  }
+
+  /**
+   * The parallel arrays, owned by a {@link Dispatcher}, that events are drained into.
+   */
+
+  private static final class Chunk< T extends Phenomenon > {
+
+    final Names.Name[]  names;
+    final Orientation[] orientations;
+    final T[]           values;
+
+    @SuppressWarnings ( "unchecked" )
+    Chunk (
+      final Class< T > type,
+      final int size
+    ) {
+
+      names =
+        new Names.Name[size];
+
+      orientations =
+        new Orientation[size];
+
+      values =
+        (T[]) Array.newInstance (
+          type,
+          size
+        );
+
+    }
+
+  }
+
+  /**
+   * A source of changes that a {@link Dispatcher} drains in chunks.
+   */
+
+  private interface Source< T extends Phenomenon > {
+
+    /**
+     * Creates a chunk, owned by a single dispatcher, sized for draining.
+     *
+     * @param size the maximum number of changes drained in one go
+     * @return A new chunk
+     */
+
+    Chunk< T > chunk ( int size );
+
+    /**
+     * Drains changes into the chunk and passes them on.
+     *
+     * @param chunk the chunk owned by the calling dispatcher
+     * @return The number of changes drained, or a negative value once closed
+     */
+
+    int drain ( Chunk< T > chunk );
+
+    /**
+     * Returns the dispatchers of the source, to be woken on a change being made pending.
+     *
+     * @return The dispatchers of the source
+     */
+
+    Waiters waiters ();
+
+    /**
+     * Returns true if any change is pending, checked after a dispatcher has announced
+     * its parking.
+     *
+     * @return true if a change is pending
+     */
+
+    boolean pending ();
+
+    /**
+     * Announces the parking of the calling dispatcher, returning false if
+     * a change became pending in the meantime and it should not park.
+     *
+     * @return true if the calling dispatcher can park
+     */
+
+    default boolean await () {
+
+      waiters ().announce ();
+
+      return
+        !pending ();
+
+    }
+
+  }
+
+  /**
+   * The dispatcher threads of a {@link Source}, parked without a timeout whenever the source
+   * has no change pending, with a producer only paying for a volatile read of the parking
+   * flag unless a dispatcher is parking. A dispatcher announces its parking before checking
+   * for a pending change, and a producer checks for an announcement after making a change
+   * pending, so that at least one of the two sees the other and no wake up is lost.
+   */
+
+  private static final class Waiters {
+
+    private static final AtomicIntegerFieldUpdater< Waiters > PARKING =
+      AtomicIntegerFieldUpdater.newUpdater (
+        Waiters.class,
+        "parking"
+      );
+
+    private volatile Thread[] threads = new Thread[0];
+    private volatile int      parking;
+
+    Waiters () {}
+
+    /*
+     * Adds a dispatcher thread, before it is started.
+     */
+
+    synchronized void enlist (
+      final Thread thread
+    ) {
+
+      final Thread[] current =
+        threads;
+
+      final Thread[] next =
+        Arrays.copyOf (
+          current,
+          current.length + 1
+        );
+
+      next[current.length] =
+        thread;
+
+      threads =
+        next;
+
+    }
+
+    /*
+     * Returns true if the thread is one of the dispatchers.
+     */
+
+    boolean enlisted (
+      final Thread thread
+    ) {
+
+      for ( final Thread dispatcher : threads ) {
+
+        if ( dispatcher == thread )
+          return true;
+
+      }
+
+      return
+        false;
+
+    }
+
+    void announce () {
+
+      parking =
+        1;
+
+    }
+
+    /*
+     * Wakes the dispatchers if any has announced its parking, with
+     * a dispatcher woken while still running only looping once more.
+     */
+
+    void wake () {
+
+      if ( parking != 0 && PARKING.getAndSet ( this, 0 ) != 0 )
+        release ();
+
+    }
+
+    void release () {
+
+      for ( final Thread thread : threads ) {
+
+        LockSupport.unpark (
+          thread
+        );
+
+      }
+
+    }
+
+  }
+
+  /**
+   * A daemon thread task draining a {@link Source}, yielding for a while once idle before
+   * parking until woken by a producer. The source is only weakly referenced in between
+   * drains so that the thread terminates once the owning context, and in turn the channel,
+   * has been garbage collected, with a parked thread woken by the reaper on the collection
+   * of its source, or immediately once the source has been closed.
+   */
+
+  private static final class Dispatcher< T extends Phenomenon >
+    implements Runnable {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger ();
+    private static final String        PREFIX  = "opensignals-services-channel-";
+    private static final int           BATCH   = 256;
+    private static final int           SPINS   = 100;
+
+    private static final ReferenceQueue< Object > COLLECTED =
+      new ReferenceQueue<> ();
+
+    static {
+
+      Threads.create (
+        Dispatcher::reap,
+        PREFIX + "reaper",
+        false
+      ).start ();
+
+    }
+
+    private final Reference< T > reference;
+    private final Chunk< T >     chunk;
+
+    private Dispatcher (
+      final Source< T > source
+    ) {
+
+      reference =
+        new Reference<> (
+          source
+        );
+
+      chunk =
+        source.chunk (
+          BATCH
+        );
+
+    }
+
+    static < T extends Phenomenon > void start (
+      final Source< T > source
+    ) {
+
+      start (
+        source,
+        false
+      );
+
+    }
+
+    static < T extends Phenomenon > void start (
+      final Source< T > source,
+      final boolean virtual
+    ) {
+
+      final Dispatcher< T > dispatcher =
+        new Dispatcher<> (
+          source
+        );
+
+      final Thread thread =
+        Threads.create (
+          dispatcher,
+          PREFIX + COUNTER.incrementAndGet (),
+          virtual
+        );
+
+      // enlisted before starting so that
+      // the thread can never park unseen
+
+      dispatcher.reference.thread =
+        thread;
+
+      source.waiters ().enlist (
+        thread
+      );
+
+      thread.start ();
+
+    }
+
+    /*
+     * Wakes the parked dispatcher of each collected source so that it terminates.
+     */
+
+    private static void reap () {
+
+      for ( ; ; ) {
+
+        try {
+
+          ( (Reference< ? >) COLLECTED.remove () ).wake ();
+
+        } catch (
+          final InterruptedException ignored
+        ) {
+
+          return;
+
+        }
+
+      }
+
+    }
+
+    /*
+     * Returns true if the dispatcher can park, with the source
+     * no longer referenced once this returns.
+     */
+
+    private static < T extends Phenomenon > boolean await (
+      final WeakReference< Source< T > > reference
+    ) {
+
+      final Source< T > source =
+        reference.get ();
+
+      return
+        source != null && source.await ();
+
+    }
+
+    private static < T extends Phenomenon > int drain (
+      final WeakReference< Source< T > > reference,
+      final Chunk< T > chunk
+    ) {
+
+      final Source< T > source =
+        reference.get ();
+
+      return
+        source != null
+        ? source.drain ( chunk )
+        : -1;
+
+    }
+
+    @Override
+    public void run () {
+
+      int idle = 0;
+
+      for ( ; ; ) {
+
+        final int count =
+          drain (
+            reference,
+            chunk
+          );
+
+        if ( count > 0 ) {
+
+          idle = 0;
+
+        } else if ( count < 0 ) {
+
+          return;
+
+        } else if ( ++idle < SPINS ) {
+
+          //noinspection CallToThreadYield
+          Thread.yield ();
+
+        } else if ( await ( reference ) ) {
+
+          LockSupport.park (
+            this
+          );
+
+          idle = 0;
+
+        }
+
+      }
+
+    }
+
+    /*
+     * The weak reference to the source of a dispatcher, queued on the
+     * collection of the source along with the thread to be woken.
+     */
+
+    private static final class Reference< T extends Phenomenon >
+      extends WeakReference< Source< T > > {
+
+      volatile Thread thread;
+
+      Reference (
+        final Source< T > source
+      ) {
+
+        super (
+          source,
+          COLLECTED
+        );
+
+      }
+
+      void wake () {
+
+        final Thread thread =
+          this.thread;
+
+        if ( thread != null ) {
+
+          LockSupport.unpark (
+            thread
+          );
+
+        }
+
+      }
+
+    }
+
+  }
+
+  /**
+   * An implementation of the {@link Channel} interface that dispatches immediately to a
+   * mailbox per subscriber, with each mailbox drained by its own thread so that a slow or
+   * blocking subscriber never stalls the service firing a signal or any other subscriber.
+   * <p>
+   * A change is handled according to the backpressure policy when a mailbox is full.
+   *
+   * @param <T> The type of {@link Phenomenon}
+   */
+
+  static final class Mailboxes< T extends Phenomenon >
+    implements Channel< T > {
+
+    private final Class< T >        type;
+    private final int               capacity;
+    private final Policy            policy;
+    private final int               sample;
+    private final boolean           conflate;
+    private final Subscribers.Scope scope;
+    private final Memory< T >       memory;
+    private final Overflows         overflows;
+
+    Mailboxes (
+      final Class< T > type,
+      final int capacity,
+      final Policy policy,
+      final int sample,
+      final boolean conflate,
+      final Subscribers.Scope scope
+    ) {
+
+      this.conflate =
+        conflate;
+
+      this.type =
+        type;
+
+      this.capacity =
+        capacity;
+
+      this.policy =
+        policy;
+
+      this.sample =
+        sample;
+
+      this.scope =
+        scope;
+
+      // the mailbox of each subscriber dispatches
+      // to the sink created here within the scope
+
+      memory =
+        new Memory<> (
+          type,
+          Subscribers.Scope.NONE
+        );
+
+      overflows =
+        new Overflows ();
+
+    }
+
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      memory.accept (
+        name,
+        orientation,
+        value
+      );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          mailbox (
+            Subscribers.sink (
+              subscriber,
+              scope
+            )
+          ),
+          Sinks.ALL
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber,
+      final int mask
+    ) {
+
+      return
+        memory.subscribe (
+          mailbox (
+            Subscribers.sink (
+              subscriber,
+              scope
+            )
+          ),
+          mask
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Names.Name prefix,
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          prefix,
+          mailbox (
+            Subscribers.sink (
+              subscriber,
+              scope
+            )
+          )
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final BatchSubscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          mailbox (
+            Subscribers.sink (
+              subscriber,
+              type
+            )
+          ),
+          Sinks.ALL
+        );
+
+    }
+
+    @Override
+    public long overflows () {
+
+      return
+        overflows.sum ();
+
+    }
+
+    @Override
+    public long skipped () {
+
+      return
+        overflows.skipped.sum ();
+
+    }
+
+    private Sink< T > mailbox (
+      final Sink< ? super T > sink
+    ) {
+
+      if ( conflate ) {
+
+        final Conflator< T > conflator =
+          new Conflator<> (
+            type,
+            capacity,
+            policy,
+            sample,
+            overflows,
+            sink
+          );
+
+        Dispatcher.start (
+          conflator,
+          true
+        );
+
+        return
+          conflator;
+
+      }
+
+      return
+        new Mailbox<> (
+          new Ring<> (
+            type,
+            capacity,
+            policy,
+            sample,
+            overflows
+          ),
+          sink
+        );
+
+    }
+
+  }
+
+  /**
+   * A bounded mailbox, backed by a {@link Ring} with a single dispatcher,
+   * sitting in front of the sink of a single subscriber. The ring applies
+   * the backpressure policy and counts overflows into the shared counters.
+   */
+
+  private static final class Mailbox< T extends Phenomenon >
+    implements Sink< T > {
+
+    private final Ring< T >         ring;
+    private final Sink< ? super T > sink;
+
+    Mailbox (
+      final Ring< T > ring,
+      final Sink< ? super T > sink
+    ) {
+
+      this.ring =
+        ring;
+
+      this.sink =
+        sink;
+
+      ring.attach (
+        sink
+      );
+
+      Dispatcher.start (
+        ring,
+        true
+      );
+
+    }
+
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      ring.accept (
+        name,
+        orientation,
+        value
+      );
+
+    }
+
+    @Override
+    public void close () {
+
+      ring.close ();
+
+      sink.close ();
+
+    }
+
+  }
+
+  /**
+   * An implementation of the {@link Channel} interface that conflates changes per service
+   * name, with one or more dispatcher threads passing on only the latest change of each service
+   * that has changed since last dispatched. Suited to status, being state, where the memory
+   * and work is bound by the number of services rather than the rate of change, with the
+   * services pending dispatch bound by the capacity and the policy applied beyond it.
+   *
+   * @param <T> The type of {@link Phenomenon}
+   */
+
+  static final class Conflated< T extends Phenomenon >
+    implements Channel< T > {
+
+    private final Memory< T >    memory;
+    private final Overflows      overflows;
+    private final Conflator< T > conflator;
+
+    Conflated (
+      final Class< T > type,
+      final int capacity,
+      final int threads,
+      final Policy policy,
+      final int sample,
+      final Subscribers.Scope scope
+    ) {
+
+      memory =
+        new Memory<> (
+          type,
+          scope
+        );
+
+      overflows =
+        new Overflows ();
+
+      conflator =
+        new Conflator<> (
+          type,
+          capacity,
+          policy,
+          sample,
+          overflows,
+          memory
+        );
+
+      for (
+        int i = Math.max ( threads, 1 );
+        i > 0;
+        i--
+      ) {
+
+        Dispatcher.start (
+          conflator
+        );
+
+      }
+
+    }
+
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      if ( memory.accepts ( value ) ) {
+
+        conflator.accept (
+          name,
+          orientation,
+          value
+        );
+
+      }
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super T > subscriber,
+      final int mask
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber,
+          mask
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Names.Name prefix,
+      final Subscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          prefix,
+          subscriber
+        );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final BatchSubscriber< ? super T > subscriber
+    ) {
+
+      return
+        memory.subscribe (
+          subscriber
+        );
+
+    }
+
+    @Override
+    public long overflows () {
+
+      return
+        overflows.sum ();
+
+    }
+
+    @Override
+    public long skipped () {
+
+      return
+        overflows.skipped.sum ();
+
+    }
 
   }
 
   /**
-   * Represents a channel for dispatching and receiving (via subscription) service changes.
-   *
-   * @param <T> the type of phenomenon.
+   * Holds the latest change of a service, packed as ordinals, along with
+   * whether it is awaiting dispatch (dirty) or has been retired on being
+   * dispatched, with a retired slot replaced by the next change.
    */
 
-  interface Channel< T extends Phenomenon > extends Sink< T > {
+  private static final class Latest {
 
-    /**
-     * Adds a {@link Subscriber} to a channel.
-     *
-     * @param subscriber the subscriber to be registered with the channel
-     * @return A subscription representation this particular subscription call.
-     */
+    private static final AtomicIntegerFieldUpdater< Latest > STATE =
+      AtomicIntegerFieldUpdater.newUpdater (
+        Latest.class,
+        "state"
+      );
 
-    Subscription subscribe ( Subscriber< ? super T > subscriber );
+    static final int CLEAN   = 0;
+    static final int DIRTY   = 1;
+    static final int RETIRED = -1;
+
+    volatile int change;
+    volatile int state;
+
+    Latest () {}
+
+    boolean mark () {
+
+      return
+        STATE.compareAndSet (
+          this,
+          CLEAN,
+          DIRTY
+        );
+
+    }
+
+    // returns false if the slot was marked, or
+    // retired, by another thread in the meantime
+
+    boolean retire () {
+
+      return
+        STATE.compareAndSet (
+          this,
+          CLEAN,
+          RETIRED
+        );
+
+    }
+
+    // retired before reading so that a
+    // concurrent update is not missed
+
+    int take () {
+
+      state =
+        RETIRED;
+
+      return
+        change;
+
+    }
 
   }
 
   /**
-   * An implementation of the {@link Channel} interface that performs all event dispatching
-   * immediately and within the same thread generating the event.
-   *
-   * @param <T> The type of {@link Phenomenon}
+   * A sink, and dispatcher source, holding the latest change per service name in a slot
+   * along with a dirty set of names changed since last drained, so that intermediate
+   * changes of a service are coalesced before being passed to the downstream sink.
+   * <p>
+   * A slot is removed once its change is drained, so that the slots are bound by the
+   * names pending, which the capacity bounds, with the backpressure policy applied when
+   * a change of a name not already pending would exceed the capacity.
    */
 
-  static final class Memory< T extends Phenomenon >
-    implements Channel< T > {
+  private static final class Conflator< T extends Phenomenon >
+    implements Sink< T >, Source< T >, Buffer< T > {
+
+    private static final Orientation[] ORIENTATIONS = Orientation.values ();
 
     @SuppressWarnings ( {"rawtypes", "java:S3740"} )
-    private static final AtomicReferenceFieldUpdater< Memory, Subscriptions.Subscription > UPDATER =
-      AtomicReferenceFieldUpdater.newUpdater (
-        Memory.class,
-        Subscriptions.Subscription.class,
-        "store"
+    private static final AtomicIntegerFieldUpdater< Conflator > SIZE =
+      AtomicIntegerFieldUpdater.newUpdater (
+        Conflator.class,
+        "size"
       );
 
-    private volatile Subscriptions.Subscription< T > store;
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicLongFieldUpdater< Conflator > SAMPLES =
+      AtomicLongFieldUpdater.newUpdater (
+        Conflator.class,
+        "samples"
+      );
+
+    private final ConcurrentHashMap< Names.Name, Latest > slots =
+      new ConcurrentHashMap<> ();
+
+    private final ConcurrentLinkedQueue< Names.Name > dirty =
+      new ConcurrentLinkedQueue<> ();
+
+    private final    Class< T >        type;
+    private final    T[]               values;
+    private final    int               capacity;
+    private final    Policy            policy;
+    private final    int               sample;
+    private final    Overflows         overflows;
+    private final    Sink< ? super T > sink;
+    private final    Waiters           waiters;
+    private volatile int               size;
+    private volatile long              samples;
+    private volatile boolean           closed;
+
+    Conflator (
+      final Class< T > type,
+      final int capacity,
+      final Policy policy,
+      final int sample,
+      final Overflows overflows,
+      final Sink< ? super T > sink
+    ) {
+
+      this.type =
+        type;
+
+      this.capacity =
+        Math.max (
+          capacity,
+          1
+        );
+
+      this.policy =
+        policy;
+
+      this.sample =
+        Math.max (
+          sample,
+          1
+        );
+
+      this.overflows =
+        overflows;
+
+      this.sink =
+        sink;
+
+      values =
+        type.getEnumConstants ();
+
+      waiters =
+        new Waiters ();
+
+    }
 
     @Override
     public void accept (
@@ -86,118 +2642,424 @@ final class Channels {
       final T value
     ) {
 
-      //noinspection LocalVariableOfConcreteClass
-      final Subscriptions.Subscription< T > head =
-        store;
+      policy.publish (
+        this,
+        name,
+        orientation,
+        value
+      );
+
+    }
+
+    /*
+     * Updates the slot of the name, with only a name not already pending
+     * taking up capacity, and retrying with a new slot should the slot be
+     * retired in the meantime.
+     */
+
+    @Override
+    public boolean offer (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      final int change =
+        orientation.ordinal () << 16 | value.ordinal ();
 
-      if ( head != null ) {
+      for ( ; ; ) {
 
-        dispatch (
-          name,
-          orientation,
-          value,
-          head
-        );
+        Latest latest =
+          slots.get (
+            name
+          );
+
+        if ( latest == null ) {
+
+          latest =
+            slots.computeIfAbsent (
+              name,
+              key -> new Latest ()
+            );
+
+        }
+
+        latest.change =
+          change;
+
+        final int state =
+          latest.state;
+
+        if ( state == Latest.DIRTY )
+          return true;
+
+        if ( state == Latest.CLEAN ) {
+
+          if ( SIZE.incrementAndGet ( this ) > capacity ) {
+
+            SIZE.decrementAndGet ( this );
+
+            // the new slot is not left behind by a rejected change
+
+            if ( latest.retire () ) {
+
+              slots.remove (
+                name,
+                latest
+              );
+
+            }
+
+            return
+              false;
+
+          }
+
+          if ( latest.mark () ) {
+
+            dirty.offer (
+              name
+            );
+
+            waiters.wake ();
+
+            return
+              true;
+
+          }
+
+          SIZE.decrementAndGet ( this );
+
+        } else {
+
+          slots.remove (
+            name,
+            latest
+          );
+
+        }
 
       }
 
     }
 
+    /*
+     * Discards the longest pending name along with its change.
+     */
+
     @Override
-    public Subscription subscribe (
-      final Subscriber< ? super T > subscriber
-    ) {
+    public boolean evict () {
 
-      final Sink< ? super T > sink =
-        Subscribers.sink (
-          subscriber
+      final Names.Name name =
+        dirty.poll ();
+
+      if ( name == null )
+        return false;
+
+      retire (
+        name
+      );
+
+      return
+        true;
+
+    }
+
+    @Override
+    public void drop () {
+
+      overflows.dropped.increment ();
+
+    }
+
+    @Override
+    public void skip () {
+
+      overflows.skipped.increment ();
+
+    }
+
+    @Override
+    public boolean pressured () {
+
+      return
+        size > capacity >> 1;
+
+    }
+
+    @Override
+    public boolean sampled () {
+
+      return
+        SAMPLES.incrementAndGet ( this ) % sample == 0L;
+
+    }
+
+    @Override
+    public boolean closed () {
+
+      return
+        closed;
+
+    }
+
+    @Override
+    public boolean draining () {
+
+      return
+        waiters.enlisted (
+          Thread.currentThread ()
         );
 
-      //noinspection unchecked
+    }
+
+    @Override
+    public void close () {
+
+      closed =
+        true;
+
+      waiters.release ();
+
+      sink.close ();
+
+    }
+
+    @Override
+    public Waiters waiters () {
+
       return
-        UPDATER.updateAndGet (
-          this,
-          next ->
-            Subscriptions.create (
-              sink,
-              Subscriptions.scan (
-                next
-              )
-            )
+        waiters;
+
+    }
+
+    @Override
+    public boolean pending () {
+
+      return
+        !dirty.isEmpty ();
+
+    }
+
+    @Override
+    public Chunk< T > chunk (
+      final int size
+    ) {
+
+      return
+        new Chunk<> (
+          type,
+          size
         );
 
     }
 
-    private void dispatch (
-      final Names.Name name,
-      final Orientation orientation,
-      final T value,
-      final Subscriptions.Subscription< T > head
+    @Override
+    public int drain (
+      final Chunk< T > chunk
     ) {
 
-      Subscriptions.Subscription< T > current =
-        head;
+      if ( closed )
+        return -1;
 
-      Subscriptions.Subscription< T > prev =
-        null;
+      final Names.Name[] names =
+        chunk.names;
 
-      do {
+      final Orientation[] orientations =
+        chunk.orientations;
 
-        final Subscriptions.Subscription< T > next =
-          Subscriptions.scan (
-            current
-          );
+      final T[] values =
+        chunk.values;
+
+      final int limit =
+        names.length;
+
+      int count = 0;
 
-        if ( next != current ) {
+      Names.Name name;
 
-          remove (
-            prev,
-            next,
-            head
+      while (
+        count < limit &&
+          ( name = dirty.poll () ) != null
+      ) {
+
+        final int change =
+          retire (
+            name
           );
 
-          if ( next == null )
-            return;
+        names[count] =
+          name;
 
-          current =
-            next;
+        orientations[count] =
+          ORIENTATIONS[change >>> 16];
 
-        }
+        values[count] =
+          this.values[change & 0xFFFF];
 
-        current
-          .accept (
-            name,
-            orientation,
-            value
+        count++;
+
+      }
+
+      if ( count > 0 ) {
+
+        sink.accept (
+          count,
+          names,
+          orientations,
+          values
+        );
+
+      }
+
+      return
+        count;
+
+    }
+
+    /*
+     * Retires and removes the slot of a name taken from the dirty
+     * set, returning its latest change, with a change made since
+     * taking up a new slot.
+     */
+
+    private int retire (
+      final Names.Name name
+    ) {
+
+      final Latest latest =
+        slots.get (
+          name
+        );
+
+      final int change =
+        latest.take ();
+
+      slots.remove (
+        name,
+        latest
+      );
+
+      SIZE.decrementAndGet (
+        this
+      );
+
+      return
+        change;
+
+    }
+
+  }
+
+  /*
+   * Creates threads, using virtual threads when requested and the runtime
+   * (Java 21+) supports them, otherwise falling back to daemon platform
+   * threads. Reflection is used so the baseline remains Java 8.
+   */
+
+  private static final class Threads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method UNSTARTED;
+
+    static {
+
+      Method ofVirtual;
+      Method unstarted;
+
+      try {
+
+        ofVirtual =
+          Thread.class.getMethod (
+            "ofVirtual"
+          );
+
+        unstarted =
+          Class.forName (
+            "java.lang.Thread$Builder"
+          ).getMethod (
+            "unstarted",
+            Runnable.class
           );
 
-        prev =
-          current;
+      } catch (
+        final ReflectiveOperationException ignored
+      ) {
+
+        ofVirtual = null;
+        unstarted = null;
+
+      }
+
+      OF_VIRTUAL =
+        ofVirtual;
+
+      UNSTARTED =
+        unstarted;
+
+    }
+
+    private Threads () {}
 
-      } while (
-        ( current = current.next ) != null
+    static Thread create (
+      final Runnable task,
+      final String name,
+      final boolean virtual
+    ) {
+
+      final Thread thread =
+        virtual && UNSTARTED != null
+        ? unstarted ( task )
+        : platform ( task );
+
+      thread.setName (
+        name
+      );
+
+      return
+        thread;
+
+    }
+
+    private static Thread platform (
+      final Runnable task
+    ) {
+
+      final Thread thread =
+        new Thread (
+          task
+        );
+
+      thread.setDaemon (
+        true
       );
 
+      return
+        thread;
+
     }
 
-    private void remove (
-      final Subscriptions.Subscription< T > prev,
-      final Subscriptions.Subscription< T > next,
-      final Subscriptions.Subscription< T > head
+    private static Thread unstarted (
+      final Runnable task
     ) {
 
-      if ( prev != null ) {
+      try {
 
-        prev.next =
-          next;
+        return
+          (Thread) UNSTARTED.invoke (
+            OF_VIRTUAL.invoke (
+              null
+            ),
+            task
+          );
 
-      } else {
+      } catch (
+        final ReflectiveOperationException ignored
+      ) {
 
-        UPDATER
-          .compareAndSet (
-            this,
-            head,
-            next
+        return
+          platform (
+            task
           );
 
       }
@@ -206,4 +3068,4 @@ final class Channels {
 
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A coarse monotonic clock, in nanoseconds, refreshed every millisecond by a single
+ * daemon thread, so that reading the time on the signal path is a volatile read and
+ * not a call into the operating system, which on some virtualized hosts can cost
+ * more than the entire scoring of a signal.
+ * <p>
+ * The daemon thread is only started by the first time-based engine, with the time
+ * read from the operating system until then.
+ *
+ * @author wlouth
+ * @since 1.0
+ */
+
+final class Clock {
+
+  private static final long PERIOD =
+    TimeUnit.MILLISECONDS.toNanos (
+      1L
+    );
+
+  private static volatile long    nanos;
+  private static volatile boolean ticking;
+
+  private Clock () {}
+
+  /**
+   * Starts the refreshing of the clock, if not already started, with the
+   * time read by the caller on return being that of the refreshed clock.
+   */
+
+  static void start () {
+
+    if ( ticking )
+      return;
+
+    synchronized ( Clock.class ) {
+
+      if ( ticking )
+        return;
+
+      nanos =
+        System.nanoTime ();
+
+      final Thread thread =
+        new Thread (
+          Clock::run,
+          "opensignals-clock"
+        );
+
+      thread.setDaemon (
+        true
+      );
+
+      thread.start ();
+
+      ticking = true;
+
+    }
+
+  }
+
+  /**
+   * Returns the time, in nanoseconds, as of the last refresh of the clock.
+   *
+   * @return The coarse time in nanoseconds, only comparable with other values of this clock
+   */
+
+  static long nanos () {
+
+    return
+      ticking
+      ? nanos
+      : System.nanoTime ();
+
+  }
+
+  @SuppressWarnings ( "InfiniteLoopStatement" )
+  private static void run () {
+
+    for ( ; ; ) {
+
+      LockSupport.parkNanos (
+        PERIOD
+      );
+
+      nanos =
+        System.nanoTime ();
+
+    }
+
+  }
+
+}
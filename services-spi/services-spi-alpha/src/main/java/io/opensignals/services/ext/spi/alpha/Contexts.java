@@ -19,15 +19,26 @@ package io.opensignals.services.ext.spi.alpha;
 import io.opensignals.services.Services;
 import io.opensignals.services.Services.*;
 import io.opensignals.services.ext.spi.alpha.Channels.Channel;
-import io.opensignals.services.ext.spi.alpha.ScoreCards.Scoring;
-import io.opensignals.services.ext.spi.alpha.Sinks.Sink;
-
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Card;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.ScoringEngine;
+import io.opensignals.services.ext.spi.alpha.Variables.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static java.util.function.Function.identity;
-
 /**
  * @author wlouth
  * @since 1.0
@@ -35,6 +46,55 @@ import static java.util.function.Function.identity;
 
 final class Contexts {
 
+  // the idle time, in milliseconds, after which a service
+  // is evicted, with zero, the default, never evicting
+  private static final Variable< Integer > EVICTION_IDLE =
+    Variables.of (
+      Names.root ( Strings.OPENSIGNALS )
+        .node ( Strings.SERVICES )
+        .node ( Strings.CONTEXT )
+        .node ( Strings.EVICTION )
+        .node ( Strings.IDLE ),
+      0
+    );
+
+  private static final Names.Name CARDINALITY =
+    Names.root ( Strings.OPENSIGNALS )
+      .node ( Strings.SERVICES )
+      .node ( Strings.CONTEXT )
+      .node ( Strings.CARDINALITY );
+
+  // the most services of a context, with zero not limiting
+  private static final Variable< Integer > CARDINALITY_LIMIT =
+    Variables.of (
+      CARDINALITY.node (
+        Strings.LIMIT
+      ),
+      0
+    );
+
+  // the most services directly under a prefix, with zero not limiting
+  private static final Variable< Integer > CARDINALITY_PREFIX =
+    Variables.of (
+      CARDINALITY.node (
+        Strings.PREFIX
+      ),
+      0
+    );
+
+  // whether a change in the roll-up of a prefix is emitted
+  // as a status of the prefix name, with false, the default,
+  // leaving the roll-ups to be queried
+  private static final Variable< Boolean > ROLLUP_EMIT =
+    Variables.of (
+      Names.root ( Strings.OPENSIGNALS )
+        .node ( Strings.SERVICES )
+        .node ( Strings.CONTEXT )
+        .node ( Strings.ROLLUP )
+        .node ( Strings.EMIT ),
+      false
+    );
+
   private Contexts () {}
 
   /**
@@ -45,33 +105,62 @@ final class Contexts {
    */
 
   static final class Context
-    implements Services.Context {
+    implements Services.Context,
+               Subscribers.Scope {
+
+    private static final AtomicLongFieldUpdater< Context > SWEEP =
+      AtomicLongFieldUpdater.newUpdater (
+        Context.class,
+        "sweep"
+      );
 
     private final Environment environment;
 
     private final ConcurrentHashMap< Names.Name, Service > services =
       new ConcurrentHashMap<> ( 1009 );
 
-    private final Channel< Phenomenon > allChannel =
-      Channels.memory ();
+    private final Directory directory =
+      new Directory ();
 
-    private final Channel< Signal > signalsChannel =
-      Channels.memory ();
+    // the ids of the active subscriptions to the channels
+    // of the context, indexing the slots of its services
+    private final BitSet subscriptions =
+      new BitSet ();
 
-    private final Channel< Status > statusChannel =
-      Channels.memory ();
+    // the ids of the services holding a slot of each
+    // subscription id, guarded by the subscriptions
+    private BitSet[] held =
+      new BitSet[0];
 
-    private final Sink< Signal > signalsSink =
-      signalsChannel.andThen (
-        allChannel
-      );
+    private final Channel< Phenomenon > allChannel;
+    private final Channel< Signal >     signalsChannel;
+    private final Channel< Status >     statusChannel;
 
-    private final Sink< Status > statusSink =
-      statusChannel.andThen (
-        allChannel
-      );
+    private final ScoringEngine engine;
+
+    // the cards of the services evicted by the last sweep
+    // released by the next sweep once no longer in use
+    private final ArrayList< Card > evicted =
+      new ArrayList<> ();
+
+    private final    long idle;
+    private volatile long sweep;
+    private volatile long evictions;
+
+    // the services counted against the limits, excluding overflows
+    private final int                                            limit;
+    private final int                                            prefixLimit;
+    private final AtomicInteger                                  count;
+    private final ConcurrentHashMap< Names.Name, AtomicInteger > prefixes;
+    private final AtomicLong                                     rejections;
 
-    private final Scoring scoring;
+    // the rejected names mapped to their overflow within the services,
+    // bounded by the larger of the limits, and dropped on an eviction
+    private final AtomicInteger overflowed;
+
+    // the status histograms of the prefixes of the named services
+    private final ConcurrentHashMap< Names.Name, Rollup > rollups;
+    private final boolean                                 emit;
 
     Context (
       final Environment environment
@@ -80,8 +169,70 @@ final class Contexts {
       this.environment =
         environment;
 
-      scoring =
-        ScoreCards.scoring (
+      idle =
+        TimeUnit.MILLISECONDS.toNanos (
+          Math.max (
+            EVICTION_IDLE.of ( environment ),
+            0
+          )
+        );
+
+      allChannel =
+        Channels.channel (
+          environment,
+          Phenomenon.class,
+          this
+        );
+
+      signalsChannel =
+        Channels.channel (
+          environment,
+          Signal.class,
+          this
+        );
+
+      statusChannel =
+        Channels.channel (
+          environment,
+          Status.class,
+          this
+        );
+
+      engine =
+        ScoreCards.engine (
+          environment
+        );
+
+      sweep =
+        Clock.nanos () + idle;
+
+      limit =
+        CARDINALITY_LIMIT.of (
+          environment
+        );
+
+      prefixLimit =
+        CARDINALITY_PREFIX.of (
+          environment
+        );
+
+      count =
+        new AtomicInteger ();
+
+      prefixes =
+        new ConcurrentHashMap<> ();
+
+      rejections =
+        new AtomicLong ();
+
+      overflowed =
+        new AtomicInteger ();
+
+      rollups =
+        new ConcurrentHashMap<> ();
+
+      emit =
+        ROLLUP_EMIT.of (
           environment
         );
 
@@ -97,157 +248,1393 @@ final class Contexts {
       final Names.Name name
     ) {
 
-      return
+      final Service service =
         services
           .computeIfAbsent (
             name,
             this::newService
           );
 
+      // the sweep is outside of the compute as
+      // it removes services from the map
+
+      if ( idle > 0L )
+        sweep ();
+
+      if ( service != null )
+        return service;
+
+      // the name was rejected by a limit so the signals
+      // are aggregated by the overflow of its prefix
+
+      final Names.Name prefix =
+        name.left ();
+
+      final Service overflow =
+        serviceOf (
+          prefix != null
+          ? prefix.node ( Strings.OVERFLOW )
+          : Names.root ( Strings.OVERFLOW )
+        );
+
+      overflow (
+        name,
+        overflow
+      );
+
+      return
+        overflow;
+
     }
 
-    private Service newService (
+    /*
+     * Maps the rejected name to its overflow so that a later lookup of
+     * the name is routed without being counted against the limits again,
+     * with the overflow checked, under the lock of the sweep, as not
+     * having been evicted since being looked up.
+     */
+
+    private void overflow (
+      final Names.Name name,
+      final Service overflow
+    ) {
+
+      if ( overflowed.incrementAndGet () > Math.max ( limit, prefixLimit ) ) {
+
+        overflowed.decrementAndGet ();
+
+        return;
+
+      }
+
+      synchronized ( evicted ) {
+
+        if (
+          services.get ( overflow.getName () ) != overflow ||
+          services.putIfAbsent ( name, overflow ) != null
+        ) {
+
+          overflowed.decrementAndGet ();
+
+        }
+
+      }
+
+    }
+
+    /*
+     * Counts the name against the limits, returning false, with
+     * nothing counted, if the name would exceed either limit, and
+     * with an overflow never limited.
+     */
+
+    private boolean admit (
       final Names.Name name
     ) {
 
+      if ( Strings.OVERFLOW.equals ( name.getValue () ) )
+        return true;
+
+      if ( limit > 0 && count.incrementAndGet () > limit ) {
+
+        count.decrementAndGet ();
+
+        return
+          false;
+
+      }
+
+      if ( prefixLimit > 0 ) {
+
+        final AtomicInteger prefix =
+          prefix (
+            name
+          );
+
+        if ( prefix.incrementAndGet () > prefixLimit ) {
+
+          prefix.decrementAndGet ();
+
+          if ( limit > 0 )
+            count.decrementAndGet ();
+
+          return
+            false;
+
+        }
+
+      }
+
       return
-        new Service (
-          name,
-          signalsSink.andThen (
-            ScoreCards.sink (
-              scoring,
-              new Synchronizer (
-                services::get
-              ).andThen (
-                statusSink
-              )
-            )
-          )
-        );
+        true;
 
     }
 
-    @Override
-    public Environment getEnvironment () {
+    /*
+     * Uncounts the name of an evicted service against the limits.
+     */
 
-      return environment;
+    private void discharge (
+      final Names.Name name
+    ) {
+
+      if ( Strings.OVERFLOW.equals ( name.getValue () ) )
+        return;
+
+      if ( limit > 0 )
+        count.decrementAndGet ();
+
+      if ( prefixLimit > 0 )
+        prefix ( name ).decrementAndGet ();
 
     }
 
-    @Override
-    public Service service (
-      final Name name
+    private AtomicInteger prefix (
+      final Names.Name name
     ) {
 
-      //noinspection SuspiciousMethodCalls
-      final Service service =
-        services.get (
-          name
-        );
+      final Names.Name prefix =
+        name.left ();
+
+      // a root name is counted under itself
 
       return
-        service != null
-        ? service
-        : serviceOf ( (Names.Name) name );
+        prefixes.computeIfAbsent (
+          prefix != null ? prefix : name,
+          key -> new AtomicInteger ()
+        );
 
     }
 
+    /*
+     * Returns the number of names rejected by a limit, with a name
+     * counted on each lookup routed to an overflow.
+     */
+
     @Override
-    public Stream< Services.Service > services () {
+    public long rejections () {
 
       return
-        services
-          .values ()
-          .stream ( )
-          .map ( identity () );
+        rejections.get ();
 
     }
 
-    @Override
-    public Subscription subscribe (
-      final Subscriber< ? super Phenomenon > subscriber
-    ) {
+    /*
+     * Evicts the services unused since the last sweep, in the manner of
+     * a clock sweep, with the sweep piggybacking on the creation of a
+     * service, as it is only then that the context grows, and done by
+     * at most one thread per idle period.
+     */
 
-      return
-        allChannel
-          .subscribe (
-            subscriber
+    private void sweep () {
+
+      final long now =
+        Clock.nanos ();
+
+      final long next =
+        sweep;
+
+      if ( now - next < 0L || !SWEEP.compareAndSet ( this, next, now + idle ) )
+        return;
+
+      collect ();
+
+    }
+
+    /*
+     * Evicts the services unused since the previous collection, with the
+     * caller either the sweep once due or a test driving the collection.
+     */
+
+    void collect () {
+
+      synchronized ( evicted ) {
+
+        // a whole period has passed since these services were evicted
+        // so any signalling thread has long finished with their cards
+
+        evicted.forEach (
+          Card::release
+        );
+
+        evicted.clear ();
+
+        final long count =
+          evictions;
+
+        directory.forEach (
+          service -> {
+
+            if ( service.idle () )
+              evict ( service );
+
+          }
+        );
+
+        // an eviction can make room for a rejected name, or have
+        // evicted the overflow a rejected name is mapped to
+
+        if ( evictions != count && overflowed.get () > 0 ) {
+
+          services.entrySet ().removeIf (
+            entry -> entry.getValue ().getName () != entry.getKey ()
+          );
+
+          overflowed.set (
+            0
           );
 
+        }
+
+      }
+
     }
 
-    @SuppressWarnings ( {"unchecked", "ChainOfInstanceofChecks"} )
-    @Override
-    public < T extends Phenomenon > Subscription subscribe (
-      final Subscriber< T > subscriber,
-      final Class< T > type
+    private void evict (
+      final Service service
     ) {
 
-      if ( type == Signal.class ) {
+      final Names.Name name =
+        service.getName ();
 
-        return
-          signalsChannel
-            .subscribe (
-              (Subscriber< Signal >) subscriber
-            );
+      if ( services.remove ( name, service ) ) {
 
-      } else if ( type == Status.class ) {
+        name.unclaim (
+          service
+        );
 
-        return
-          statusChannel
-            .subscribe (
-              (Subscriber< Status >) subscriber
-            );
+        directory.release (
+          service.id ()
+        );
 
-      } else {
+        discharge (
+          name
+        );
 
-        throw
-          new IllegalArgumentException ();
+        rollup (
+          name,
+          service.retire (),
+          Status.NONE.ordinal ()
+        );
+
+        final Card card =
+          service.detach ();
+
+        if ( card != null ) {
+
+          evicted.add (
+            card
+          );
+
+        }
+
+        //noinspection NonAtomicOperationOnVolatileField
+        evictions++;
 
       }
 
     }
 
-    private static final class Synchronizer
-      implements Sink< Status > {
+    /*
+     * Moves the service of the name from one status to another within the
+     * histogram of each of its prefixes, so that the roll-up of a prefix is
+     * maintained on a change of status rather than computed on a query, with
+     * a service of status NONE not counted. The name itself has no roll-up,
+     * with the status of its own service combined on a query, and a roll-up
+     * left without any services, as on an eviction, is removed.
+     */
+
+    void rollup (
+      final Names.Name name,
+      final int prev,
+      final int next
+    ) {
 
-      private final Function< ? super Names.Name, Service > lookup;
-      private       Service                                 service;
+      if ( prev == next )
+        return;
 
-      Synchronizer (
-        final Function< ? super Names.Name, Service > lookup
+      for (
+        Names.Name prefix = name.left ();
+        prefix != null;
+        prefix = prefix.left ()
       ) {
 
-        this.lookup =
-          lookup;
+        Rollup rollup;
 
-      }
+        // a roll-up retired by a racing removal is
+        // removed here too before the move is retried
 
-      @Override
-      public void accept (
-        final Names.Name name,
-        final Orientation orientation,
-        final Status value
-      ) {
+        while (
+          !( rollup = rollup ( prefix ) ).move (
+            prev,
+            next
+          )
+        ) {
 
-        Service service =
-          this.service;
+          rollups.remove (
+            prefix,
+            rollup
+          );
 
-        if ( service == null ) {
+        }
 
-          this.service
-            = service
-            = lookup.apply ( name );
+        if ( emit )
+          emit ( prefix, rollup );
+
+        if ( next == 0 && rollup.retire () ) {
+
+          rollups.remove (
+            prefix,
+            rollup
+          );
 
         }
 
-        service.status =
-          value;
+      }
+
+    }
+
+    private Rollup rollup (
+      final Names.Name prefix
+    ) {
+
+      final Rollup rollup =
+        rollups.get (
+          prefix
+        );
+
+      return
+        rollup != null
+        ? rollup
+        : rollups.computeIfAbsent (
+          prefix,
+          key -> new Rollup ()
+        );
+
+    }
+
+    /*
+     * Emits the status of the prefix if changed, holding the roll-up so
+     * that racing changes are emitted in the order they were observed.
+     */
+
+    private void emit (
+      final Names.Name prefix,
+      final Rollup rollup
+    ) {
+
+      //noinspection SynchronizationOnLocalVariableOrMethodParameter
+      synchronized ( rollup ) {
+
+        final Status change =
+          rollup.change ();
+
+        if ( change != null ) {
+
+          statusChannel.accept (
+            prefix,
+            Orientation.EMIT,
+            change
+          );
+
+          allChannel.accept (
+            prefix,
+            Orientation.EMIT,
+            change
+          );
+
+        }
 
       }
 
     }
 
+    @Override
+    public long evictions () {
+
+      return
+        evictions;
+
+    }
+
+    /*
+     * Creates a Service with the next id, called by the map at most
+     * once for a name so the ids of the services are kept dense.
+     */
+
+    private Service newService (
+      final Names.Name name
+    ) {
+
+      // a null result leaves the name unmapped
+
+      if ( ( limit > 0 || prefixLimit > 0 ) && !admit ( name ) )
+        return null;
+
+      final int id =
+        directory.allocate ();
+
+      final Service service =
+        new Service (
+          this,
+          id,
+          name,
+          signalsChannel,
+          statusChannel,
+          allChannel,
+          engine
+        );
+
+      directory.set (
+        id,
+        service
+      );
+
+      return
+        service;
+
+    }
+
+    /*
+     * Returns the service with the id, or null if the service
+     * is still being created.
+     */
+
+    Service service (
+      final int id
+    ) {
+
+      return
+        directory.get (
+          id
+        );
+
+    }
+
+    /*
+     * Iterates over the services, in order of creation,
+     * without allocating.
+     */
+
+    void forEach (
+      final Consumer< ? super Service > consumer
+    ) {
+
+      directory.forEach (
+        consumer
+      );
+
+    }
+
+    @Override
+    public int acquire () {
+
+      synchronized ( subscriptions ) {
+
+        final int id =
+          subscriptions.nextClearBit (
+            0
+          );
+
+        subscriptions.set (
+          id
+        );
+
+        return
+          id;
+
+      }
+
+    }
+
+    /*
+     * Notes the service as holding a slot of the subscription.
+     */
+
+    void hold (
+      final int id,
+      final int service
+    ) {
+
+      synchronized ( subscriptions ) {
+
+        if ( id >= held.length ) {
+
+          held =
+            Arrays.copyOf (
+              held,
+              Math.max (
+                id + 1,
+                held.length << 1
+              )
+            );
+
+        }
+
+        BitSet services =
+          held[id];
+
+        if ( services == null ) {
+
+          services =
+            new BitSet ();
+
+          held[id] =
+            services;
+
+        }
+
+        services.set (
+          service
+        );
+
+      }
+
+    }
+
+    /*
+     * Clears the slot of the subscription within those services holding
+     * it before the id is reused, so that a cancelled subscriber is not
+     * retained, with a recycled service id only having a slot cleared.
+     */
+
+    @Override
+    public void release (
+      final int id
+    ) {
+
+      final BitSet services;
+
+      synchronized ( subscriptions ) {
+
+        services =
+          id < held.length
+          ? held[id]
+          : null;
+
+        if ( services != null )
+          held[id] = null;
+
+      }
+
+      if ( services != null ) {
+
+        for (
+          int i = services.nextSetBit ( 0 );
+          i >= 0;
+          i = services.nextSetBit ( i + 1 )
+        ) {
+
+          final Service service =
+            directory.get (
+              i
+            );
+
+          if ( service != null ) {
+
+            service.slot (
+              id,
+              null
+            );
+
+          }
+
+        }
+
+      }
+
+      synchronized ( subscriptions ) {
+
+        subscriptions.clear (
+          id
+        );
+
+      }
+
+    }
+
+    /*
+     * Returns the service claiming the name when of this context,
+     * and so without creating the service of an unclaimed name.
+     */
+
+    @Override
+    public Subscribers.Slots slots (
+      final Names.Name name
+    ) {
+
+      final Object claimed =
+        name.service ();
+
+      return
+        claimed != null && ( (Service) claimed ).within ( this )
+        ? (Service) claimed
+        : null;
+
+    }
+
+    @Override
+    public Environment getEnvironment () {
+
+      return environment;
+
+    }
+
+    /*
+     * Returns the service claiming the name when of this context,
+     * as is the case for the first context to look up a name, with
+     * any other context falling back to the map.
+     */
+
+    @Override
+    public Service service (
+      final Name name
+    ) {
+
+      final Names.Name node =
+        (Names.Name) name;
+
+      final Object claimed =
+        node.service ();
+
+      if ( claimed != null && ( (Service) claimed ).within ( this ) )
+        return (Service) claimed;
+
+      for ( ; ; ) {
+
+        Service service =
+          services.get (
+            node
+          );
+
+        if ( service == null ) {
+
+          service =
+            serviceOf (
+              node
+            );
+
+        }
+
+        // a name routed to an overflow is not claimed as the
+        // overflow could be evicted without releasing the claim
+
+        if ( service.getName () != node ) {
+
+          rejections.incrementAndGet ();
+
+          return
+            service;
+
+        }
+
+        node.claim (
+          service
+        );
+
+        // a sweep evicting the service between the lookup and
+        // the claim would otherwise leave the claim in place
+
+        if ( services.get ( node ) == service )
+          return service;
+
+        node.unclaim (
+          service
+        );
+
+      }
+
+    }
+
+    @Override
+    public Stream< Services.Service > services () {
+
+      return
+        IntStream
+          .range ( 0, directory.size () )
+          .< Services.Service > mapToObj ( directory::get )
+          .filter ( Objects::nonNull );
+
+    }
+
+    @Override
+    public Status status (
+      final Name prefix
+    ) {
+
+      final Rollup rollup =
+        rollups.get (
+          (Names.Name) prefix
+        );
+
+      final Status status =
+        rollup != null
+        ? rollup.status ()
+        : Status.NONE;
+
+      // a service named by the prefix is not held within its roll-up
+
+      final Service service =
+        services.get (
+          (Names.Name) prefix
+        );
+
+      if ( service == null || service.getName () != prefix )
+        return status;
+
+      final Status own =
+        service.getStatus ();
+
+      return
+        own.compareTo ( status ) > 0
+        ? own
+        : status;
+
+    }
+
+    @Override
+    public long overflows (
+      final Class< ? extends Phenomenon > type
+    ) {
+
+      return
+        channel (
+          type
+        ).overflows ();
+
+    }
+
+    @Override
+    public long skipped (
+      final Class< ? extends Phenomenon > type
+    ) {
+
+      return
+        channel (
+          type
+        ).skipped ();
+
+    }
+
+    /*
+     * Returns the channel dispatching the changes of the type.
+     */
+
+    private Channel< ? > channel (
+      final Class< ? extends Phenomenon > type
+    ) {
+
+      if ( type == Signal.class ) {
+
+        return
+          signalsChannel;
+
+      } else if ( type == Status.class ) {
+
+        return
+          statusChannel;
+
+      } else if ( type == Phenomenon.class ) {
+
+        return
+          allChannel;
+
+      } else {
+
+        throw
+          new IllegalArgumentException ();
+
+      }
+
+    }
+
+    @Override
+    public void refresh () {
+
+      engine.refresh (
+        environment
+      );
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Subscriber< ? super Phenomenon > subscriber
+    ) {
+
+      return
+        allChannel
+          .subscribe (
+            subscriber
+          );
+
+    }
+
+    @SuppressWarnings ( {"unchecked", "ChainOfInstanceofChecks"} )
+    @Override
+    public < T extends Phenomenon > Subscription subscribe (
+      final Subscriber< T > subscriber,
+      final Class< T > type
+    ) {
+
+      if ( type == Signal.class ) {
+
+        return
+          signalsChannel
+            .subscribe (
+              (Subscriber< Signal >) subscriber
+            );
+
+      } else if ( type == Status.class ) {
+
+        return
+          statusChannel
+            .subscribe (
+              (Subscriber< Status >) subscriber
+            );
+
+      } else {
+
+        throw
+          new IllegalArgumentException ();
+
+      }
+
+    }
+
+    @Override
+    public Subscription subscribe (
+      final Name prefix,
+      final Subscriber< ? super Phenomenon > subscriber
+    ) {
+
+      return
+        allChannel
+          .subscribe (
+            (Names.Name) prefix,
+            subscriber
+          );
+
+    }
+
+    @SuppressWarnings ( {"unchecked", "ChainOfInstanceofChecks"} )
+    @Override
+    public < T extends Phenomenon > Subscription subscribe (
+      final Name prefix,
+      final Subscriber< T > subscriber,
+      final Class< T > type
+    ) {
+
+      if ( type == Signal.class ) {
+
+        return
+          signalsChannel
+            .subscribe (
+              (Names.Name) prefix,
+              (Subscriber< Signal >) subscriber
+            );
+
+      } else if ( type == Status.class ) {
+
+        return
+          statusChannel
+            .subscribe (
+              (Names.Name) prefix,
+              (Subscriber< Status >) subscriber
+            );
+
+      } else {
+
+        throw
+          new IllegalArgumentException ();
+
+      }
+
+    }
+
+    @SuppressWarnings ( {"unchecked", "ChainOfInstanceofChecks"} )
+    @Override
+    public < T extends Enum< T > & Phenomenon > Subscription subscribe (
+      final Subscriber< T > subscriber,
+      final Class< T > type,
+      final EnumSet< T > filter
+    ) {
+
+      final int mask =
+        Sinks.mask (
+          filter
+        );
+
+      // the enum bound on the type stops
+      // it being compared to either class
+
+      final Class< ? > kind =
+        type;
+
+      if ( kind == Signal.class ) {
+
+        return
+          signalsChannel
+            .subscribe (
+              (Subscriber< Signal >) (Subscriber< ? >) subscriber,
+              mask
+            );
+
+      } else if ( kind == Status.class ) {
+
+        return
+          statusChannel
+            .subscribe (
+              (Subscriber< Status >) (Subscriber< ? >) subscriber,
+              mask
+            );
+
+      } else {
+
+        throw
+          new IllegalArgumentException ();
+
+      }
+
+    }
+
+    @SuppressWarnings ( {"unchecked", "ChainOfInstanceofChecks"} )
+    @Override
+    public < T extends Phenomenon > Subscription subscribe (
+      final BatchSubscriber< T > subscriber,
+      final Class< T > type
+    ) {
+
+      if ( type == Signal.class ) {
+
+        return
+          signalsChannel
+            .subscribe (
+              (BatchSubscriber< Signal >) subscriber
+            );
+
+      } else if ( type == Status.class ) {
+
+        return
+          statusChannel
+            .subscribe (
+              (BatchSubscriber< Status >) subscriber
+            );
+
+      } else if ( type == Phenomenon.class ) {
+
+        return
+          allChannel
+            .subscribe (
+              (BatchSubscriber< Phenomenon >) subscriber
+            );
+
+      } else {
+
+        throw
+          new IllegalArgumentException ();
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The histogram of the statuses of the services named under a prefix, with the
+   * status of the prefix being the most severe status counted, and so found by
+   * scanning the few statuses rather than the many services.
+   * <p>
+   * As NONE is never counted, its slot instead counts the services held, with the
+   * roll-up retired, once empty, by swapping the count to -1 so that a service can
+   * no longer be moved into a roll-up that is being removed.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Rollup {
+
+    private static final Status[] STATUSES =
+      Status.values ();
+
+    private static final int HELD = 0;
+
+    private final AtomicIntegerArray counts =
+      new AtomicIntegerArray (
+        STATUSES.length
+      );
+
+    // the ordinal of the status last emitted for the prefix, guarded by the roll-up
+    private int emitted;
+
+    /*
+     * Moves a service between statuses, with NONE never counted, returning
+     * false if the roll-up was retired before the service could be added.
+     */
+
+    boolean move (
+      final int prev,
+      final int next
+    ) {
+
+      if ( prev == 0 ) {
+
+        int held;
+
+        do {
+
+          held =
+            counts.get (
+              HELD
+            );
+
+          if ( held < 0 )
+            return false;
+
+        } while (
+          !counts.compareAndSet (
+            HELD,
+            held,
+            held + 1
+          )
+        );
+
+      }
+
+      if ( next != 0 )
+        counts.incrementAndGet ( next );
+
+      if ( prev != 0 )
+        counts.decrementAndGet ( prev );
+
+      if ( next == 0 )
+        counts.decrementAndGet ( HELD );
+
+      return
+        true;
+
+    }
+
+    /*
+     * Retires the roll-up if no service is held, for its removal.
+     */
+
+    boolean retire () {
+
+      return
+        counts.compareAndSet (
+          HELD,
+          0,
+          -1
+        );
+
+    }
+
+    Status status () {
+
+      for (
+        int i = STATUSES.length - 1;
+        i > 0;
+        i--
+      ) {
+
+        if ( counts.get ( i ) > 0 )
+          return STATUSES[i];
+
+      }
+
+      return
+        Status.NONE;
+
+    }
+
+    /*
+     * Returns the status of the prefix if changed since last emitted,
+     * with the caller holding the roll-up.
+     */
+
+    Status change () {
+
+      final Status status =
+        status ();
+
+      final int ordinal =
+        status.ordinal ();
+
+      if ( emitted == ordinal )
+        return null;
+
+      emitted =
+        ordinal;
+
+      return
+        status;
+
+    }
+
+  }
+
+  /**
+   * A registry of the services of a context indexed by a dense int id, held within
+   * chunks doubling in size so that a service is never copied on growth, with the ids
+   * usable as keys of side tables held elsewhere within the SPI, and with the id of an
+   * evicted service reused by the next service created.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Directory {
+
+    // the number of ids within the first chunk
+    private static final int FIRST = 16;
+    private static final int BITS  = Integer.numberOfTrailingZeros ( FIRST );
+
+    private final    AtomicInteger                     ids;
+    private volatile AtomicReferenceArray< Service >[] chunks;
+
+    // the released ids, guarded by the directory
+    private          int[] free = new int[0];
+    private volatile int   frees;
+
+    Directory () {
+
+      ids =
+        new AtomicInteger ();
+
+      // a generic array can only be created through a wildcard
+
+      @SuppressWarnings ( "unchecked" )
+      final AtomicReferenceArray< Service >[] empty =
+        (AtomicReferenceArray< Service >[]) new AtomicReferenceArray< ? >[0];
+
+      chunks =
+        empty;
+
+    }
+
+    private static int index (
+      final int id
+    ) {
+
+      return
+        31 - Integer.numberOfLeadingZeros ( id + FIRST ) - BITS;
+
+    }
+
+    private static int offset (
+      final int id
+    ) {
+
+      return
+        id + FIRST - ( FIRST << index ( id ) );
+
+    }
+
+    /*
+     * Allots the next id, along with its chunk, with the chunk
+     * installed before the id is published, so that any id below
+     * the size can be read without racing the growth of the chunks.
+     */
+
+    int allocate () {
+
+      if ( frees > 0 ) {
+
+        final int id =
+          reuse ();
+
+        if ( id >= 0 )
+          return id;
+
+      }
+
+      int id;
+
+      do {
+
+        id =
+          ids.get ();
+
+        final int chunk =
+          index (
+            id
+          );
+
+        if ( chunk >= chunks.length )
+          grow ( chunk );
+
+      } while (
+        !ids.compareAndSet (
+          id,
+          id + 1
+        )
+      );
+
+      return
+        id;
+
+    }
+
+    private synchronized int reuse () {
+
+      final int count =
+        frees;
+
+      if ( count == 0 )
+        return -1;
+
+      frees =
+        count - 1;
+
+      return
+        free[count - 1];
+
+    }
+
+    /*
+     * Removes the service of the id, with the id reused
+     * by the next service created.
+     */
+
+    synchronized void release (
+      final int id
+    ) {
+
+      set (
+        id,
+        null
+      );
+
+      final int count =
+        frees;
+
+      if ( count == free.length ) {
+
+        free =
+          Arrays.copyOf (
+            free,
+            Math.max ( count << 1, FIRST )
+          );
+
+      }
+
+      free[count] =
+        id;
+
+      frees =
+        count + 1;
+
+    }
+
+    private synchronized void grow (
+      final int chunk
+    ) {
+
+      final AtomicReferenceArray< Service >[] current =
+        chunks;
+
+      if ( chunk < current.length )
+        return;
+
+      final AtomicReferenceArray< Service >[] next =
+        Arrays.copyOf (
+          current,
+          chunk + 1
+        );
+
+      for ( int i = current.length; i <= chunk; i++ ) {
+
+        //noinspection ObjectAllocationInLoop
+        next[i] =
+          new AtomicReferenceArray<> (
+            FIRST << i
+          );
+
+      }
+
+      chunks =
+        next;
+
+    }
+
+    void set (
+      final int id,
+      final Service service
+    ) {
+
+      chunks[index ( id )].set (
+        offset ( id ),
+        service
+      );
+
+    }
+
+    Service get (
+      final int id
+    ) {
+
+      return
+        chunks[index ( id )].get (
+          offset ( id )
+        );
+
+    }
+
+    /*
+     * Walks the chunks directly, skipping any id allotted
+     * to a service that is still being created.
+     */
+
+    void forEach (
+      final Consumer< ? super Service > consumer
+    ) {
+
+      final int size =
+        ids.get ();
+
+      final AtomicReferenceArray< Service >[] chunks =
+        this.chunks;
+
+      int id = 0;
+
+      for (
+        int i = 0;
+        i < chunks.length && id < size;
+        i++
+      ) {
+
+        final AtomicReferenceArray< Service > chunk =
+          chunks[i];
+
+        for (
+          int j = 0;
+          j < chunk.length () && id < size;
+          j++, id++
+        ) {
+
+          final Service service =
+            chunk.get (
+              j
+            );
+
+          if ( service != null )
+            consumer.accept ( service );
+
+        }
+
+      }
+
+    }
+
+    int size () {
+
+      return
+        ids.get ();
+
+    }
+
   }
 
 }
@@ -18,6 +18,7 @@ package io.opensignals.services.ext.spi.alpha;
 
 import io.opensignals.services.Services;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Member;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -317,11 +318,23 @@ final class Names {
         "cache"
       );
 
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicReferenceFieldUpdater< Name, WeakReference > SERVICE =
+      AtomicReferenceFieldUpdater.newUpdater (
+        Name.class,
+        WeakReference.class,
+        "service"
+      );
+
     private final String                            value;
     private final Name                              prefix;
     volatile      ConcurrentHashMap< String, Name > cache;
     private       String                            path;
 
+    // the service of the first context to claim this name,
+    // held weakly so a discarded context is not retained
+    private volatile WeakReference< Object > service;
+
     private static ConcurrentHashMap< String, Name > createCache () {
 
       return new ConcurrentHashMap<> ();
@@ -402,6 +415,72 @@ final class Names {
 
     }
 
+    /*
+     * Returns the service claiming this name, or null if the
+     * name is unclaimed or the claiming context was discarded.
+     */
+
+    Object service () {
+
+      final WeakReference< Object > reference =
+        service;
+
+      return
+        reference != null
+        ? reference.get ()
+        : null;
+
+    }
+
+    /*
+     * Claims this name for the service if the name is unclaimed,
+     * or the service last claiming it has since been collected.
+     */
+
+    void claim (
+      final Object value
+    ) {
+
+      final WeakReference< Object > reference =
+        service;
+
+      if ( reference == null || reference.get () == null ) {
+
+        SERVICE.compareAndSet (
+          this,
+          reference,
+          new WeakReference<> (
+            value
+          )
+        );
+
+      }
+
+    }
+
+    /*
+     * Releases the claim of the service on this name, as on its eviction.
+     */
+
+    void unclaim (
+      final Object value
+    ) {
+
+      final WeakReference< Object > reference =
+        service;
+
+      if ( reference != null && reference.get () == value ) {
+
+        SERVICE.compareAndSet (
+          this,
+          reference,
+          null
+        );
+
+      }
+
+    }
+
     private String path () {
 
       return
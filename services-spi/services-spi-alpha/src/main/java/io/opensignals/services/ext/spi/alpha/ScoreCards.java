@@ -17,15 +17,22 @@
 package io.opensignals.services.ext.spi.alpha;
 
 import io.opensignals.services.Services.Environment;
-import io.opensignals.services.Services.Orientation;
 import io.opensignals.services.Services.Signal;
 import io.opensignals.services.Services.Status;
-import io.opensignals.services.ext.spi.alpha.Sinks.Sink;
 import io.opensignals.services.ext.spi.alpha.Variables.Variable;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
-import static io.opensignals.services.Services.Orientation.EMIT;
 import static io.opensignals.services.Services.Signal.*;
 import static io.opensignals.services.Services.Status.*;
 
@@ -39,7 +46,10 @@ final class ScoreCards {
   private static final Signal[] SIGNALS = Signal.values ();
 
   private static final Integer[] SCORE_DEFAULTS = {0, 2, 4, 8, 16, 64};
+  // the percentage of each status total retained on each scored signal
   private static final Integer[] DECAY_DEFAULTS = {0, 75, 75, 75, 75, 75};
+  // the percentage of signals, within the window, at which each status is entered
+  private static final Float[]   RATE_DEFAULTS  = {0F, 0F, 0F, 10F, 5F, 1F};
 
   @SuppressWarnings ( "WeakerAccess" )
   static final Status[] STATES = Status.values ();
@@ -55,6 +65,167 @@ final class ScoreCards {
   private static final Variable< Integer >[] DECAY_VARS =
     (Variable< Integer >[]) ( new Variable[STATES.length] );
 
+  // the half-life, in milliseconds, of each status total decayed over
+  // time instead of on scoring, with zero, the default, not doing so
+  @SuppressWarnings ( "unchecked" )
+  private static final Variable< Integer >[] HALFLIFE_VARS =
+    (Variable< Integer >[]) new Variable< ? >[STATES.length];
+
+  @SuppressWarnings ( "unchecked" )
+  private static final Variable< Float >[] RATE_VARS =
+    (Variable< Float >[]) new Variable< ? >[SIGNALS.length];
+
+  private static final Names.Name SCORE =
+    Names.root ( Strings.OPENSIGNALS )
+      .node ( Strings.SERVICES )
+      .node ( Strings.SERVICE )
+      .node ( Strings.SCORE );
+
+  private static final Variable< Type > ENGINE =
+    Variables.of (
+      SCORE.node (
+        Strings.ENGINE
+      ),
+      Type.class,
+      Type.ADDITIVE
+    );
+
+  private static final Variable< Float > EWMA_ALPHA =
+    Variables.of (
+      SCORE.node (
+        Strings.EWMA
+      ).node (
+        Strings.ALPHA
+      ),
+      0.1F
+    );
+
+  private static final Variable< Float > EWMA_THRESHOLD =
+    Variables.of (
+      SCORE.node (
+        Strings.EWMA
+      ).node (
+        Strings.THRESHOLD
+      ),
+      0.05F
+    );
+
+  // the span of the window in milliseconds
+  private static final Variable< Integer > WINDOW_SPAN =
+    Variables.of (
+      SCORE.node (
+        Strings.WINDOW
+      ).node (
+        Strings.SPAN
+      ),
+      1000
+    );
+
+  private static final Variable< Integer > WINDOW_BUCKETS =
+    Variables.of (
+      SCORE.node (
+        Strings.WINDOW
+      ).node (
+        Strings.BUCKETS
+      ),
+      10
+    );
+
+  // the number of deviations from the mean rate that is deviating, with zero disabling detection
+  private static final Variable< Float > DEVIATION_SIGMA =
+    Variables.of (
+      SCORE.node (
+        Strings.DEVIATION
+      ).node (
+        Strings.SIGMA
+      ),
+      0.0F
+    );
+
+  private static final Variable< Float > DEVIATION_ALPHA =
+    Variables.of (
+      SCORE.node (
+        Strings.DEVIATION
+      ).node (
+        Strings.ALPHA
+      ),
+      0.1F
+    );
+
+  // the span of a window in milliseconds
+  private static final Variable< Integer > DEVIATION_SPAN =
+    Variables.of (
+      SCORE.node (
+        Strings.DEVIATION
+      ).node (
+        Strings.SPAN
+      ),
+      1000
+    );
+
+  private static final Variable< Integer > DEVIATION_WARMUP =
+    Variables.of (
+      SCORE.node (
+        Strings.DEVIATION
+      ).node (
+        Strings.WARMUP
+      ),
+      10
+    );
+
+  // the cadence of the evaluator in milliseconds, with zero scoring inline
+  private static final Variable< Integer > DEFERRED_CADENCE =
+    Variables.of (
+      SCORE.node (
+        Strings.DEFERRED
+      ).node (
+        Strings.CADENCE
+      ),
+      0
+    );
+
+  // the span of the window in milliseconds
+  private static final Variable< Integer > RATE_SPAN =
+    Variables.of (
+      SCORE.node (
+        Strings.RATE
+      ).node (
+        Strings.SPAN
+      ),
+      30_000
+    );
+
+  private static final Variable< Integer > RATE_BUCKETS =
+    Variables.of (
+      SCORE.node (
+        Strings.RATE
+      ).node (
+        Strings.BUCKETS
+      ),
+      30
+    );
+
+  private static final Variable< Integer > BUCKET_CAPACITY =
+    Variables.of (
+      SCORE.node (
+        Strings.BUCKET
+      ).node (
+        Strings.CAPACITY
+      ),
+      64
+    );
+
+  // the units refilled per second
+  private static final Variable< Integer > BUCKET_RATE =
+    Variables.of (
+      SCORE.node (
+        Strings.BUCKET
+      ).node (
+        Strings.RATE
+      ),
+      32
+    );
+
   static {
 
     map (
@@ -143,6 +314,17 @@ final class ScoreCards {
           SCORE_DEFAULTS[MAPPINGS[index]]
         );
 
+      //noinspection ObjectAllocationInLoop
+      RATE_VARS[index] =
+        Variables.of (
+          signals.node (
+            signal
+          ).node (
+            Strings.RATE
+          ),
+          RATE_DEFAULTS[MAPPINGS[index]]
+        );
+
     }
 
     final Names.Name states =
@@ -166,6 +348,17 @@ final class ScoreCards {
           DECAY_DEFAULTS[MAPPINGS[index]]
         );
 
+      //noinspection ObjectAllocationInLoop
+      HALFLIFE_VARS[index] =
+        Variables.of (
+          states.node (
+            status
+          ).node (
+            Strings.HALFLIFE
+          ),
+          0
+        );
+
     }
 
   }
@@ -214,6 +407,37 @@ final class ScoreCards {
 
   }
 
+  private static long[] halflives (
+    final Environment environment
+  ) {
+
+    final int count =
+      HALFLIFE_VARS.length;
+
+    final long[] halflives =
+      new long[count];
+
+    for (
+      int i = count - 1;
+      i >= 0;
+      i--
+    ) {
+
+      halflives[i] =
+        Math.max (
+          HALFLIFE_VARS[i].of (
+            environment
+          ),
+          0
+        );
+
+    }
+
+    return
+      halflives;
+
+  }
+
   private static Score[] scores (
     final Environment environment
   ) {
@@ -262,6 +486,39 @@ final class ScoreCards {
 
   }
 
+  private static float[] rates (
+    final Environment environment
+  ) {
+
+    final int count =
+      RATE_VARS.length;
+
+    final float[] rates =
+      new float[count];
+
+    for (
+      int i = count - 1;
+      i >= 0;
+      i--
+    ) {
+
+      // converted from a percentage to a ratio
+
+      rates[i] =
+        Math.max (
+          RATE_VARS[i].of (
+            environment
+          ),
+          0F
+        ) / 100F;
+
+    }
+
+    return
+      rates;
+
+  }
+
   private ScoreCards () {}
 
   static Scoring scoring (
@@ -276,20 +533,134 @@ final class ScoreCards {
         ),
         decays (
           environment
+        ),
+        halflives (
+          environment
         )
       );
 
   }
 
-  static Sink< Signal > sink (
-    final Scoring scoring,
-    final Sink< ? super Status > sink
+  static Card card (
+    final Scoring scoring
+  ) {
+
+    return
+      new AdditiveCard (
+        scoring
+      );
+
+  }
+
+  /**
+   * Creates the scoring engine configured by {@code opensignals.services.service.score.engine}
+   * within the environment, defaulting to {@link Type#ADDITIVE}, with the engine wrapped by
+   * the detection of deviations unless {@code opensignals.services.service.score.deviation.sigma}
+   * is not positive, and with the scoring deferred to the evaluator thread when
+   * {@code opensignals.services.service.score.deferred.cadence} is positive.
+   *
+   * @param environment the environment used for resolving the scoring configuration
+   * @return A new scoring engine, shared by all services of a context
+   */
+
+  static ScoringEngine engine (
+    final Environment environment
+  ) {
+
+    final ScoringEngine engine =
+      select (
+        environment
+      );
+
+    // the detection of deviations is opted into with a positive sigma
+
+    final float sigma =
+      DEVIATION_SIGMA.of (
+        environment
+      );
+
+    final ScoringEngine detecting =
+      sigma > 0F
+      ? new Deviations (
+        engine,
+        sigma,
+        DEVIATION_ALPHA.of ( environment ),
+        DEVIATION_SPAN.of ( environment ),
+        DEVIATION_WARMUP.of ( environment )
+      )
+      : engine;
+
+    // a positive cadence moves the scoring onto the evaluator
+
+    final int cadence =
+      DEFERRED_CADENCE.of (
+        environment
+      );
+
+    return
+      cadence > 0
+      ? new Deferred ( detecting, cadence )
+      : detecting;
+
+  }
+
+  private static ScoringEngine select (
+    final Environment environment
+  ) {
+
+    switch ( ENGINE.of ( environment ) ) {
+
+      case EWMA:
+        return
+          new Ewma (
+            scores ( environment ),
+            EWMA_ALPHA.of ( environment ),
+            EWMA_THRESHOLD.of ( environment )
+          );
+
+      case WINDOW:
+        return
+          new Window (
+            scores ( environment ),
+            WINDOW_SPAN.of ( environment ),
+            WINDOW_BUCKETS.of ( environment )
+          );
+
+      case RATE:
+        return
+          new Rate (
+            scores ( environment ),
+            rates ( environment ),
+            RATE_SPAN.of ( environment ),
+            RATE_BUCKETS.of ( environment )
+          );
+
+      case BUCKET:
+        return
+          new Bucket (
+            scores ( environment ),
+            BUCKET_CAPACITY.of ( environment ),
+            BUCKET_RATE.of ( environment )
+          );
+
+      default:
+        return
+          scoring (
+            environment
+          );
+
+    }
+
+  }
+
+  private static int mask (
+    final Score[] scores
   ) {
 
     int mask = 0;
     int bit = 1;
 
-    for ( final Score score : scoring.scores ) {
+    for ( final Score score : scores ) {
 
       if ( score != null )
         mask |= bit;
@@ -299,192 +670,3845 @@ final class ScoreCards {
     }
 
     return
-      Sinks.sink (
-        new Atomic (
-          scoring.scores,
-          scoring.decay,
-          sink
-        ),
-        mask
-      );
+      mask;
 
   }
 
-  static final class Scoring {
+  /**
+   * The scoring algorithm used for deriving the status of a service from its signals.
+   */
 
-    final Score[] scores;
-    final int[]   decay;
+  enum Type {
 
-    @SuppressWarnings ( "AssignmentOrReturnOfFieldWithMutableType" )
-    Scoring (
-      final Score[] scores,
-      final int[] decay
-    ) {
+    /**
+     * Add the units of each signal to the total of its status, with totals decaying
+     * by a percentage on each scored signal, or over time by their half-life when
+     * configured, and select the status with the largest total.
+     */
 
-      this.scores =
-        scores;
+    ADDITIVE,
 
-      this.decay =
-        decay;
+    /**
+     * Track an exponentially weighted moving average of the ratio of signals scoring
+     * other than OK, with the most severe such status selected while over a threshold.
+     */
 
-    }
+    EWMA,
+
+    /**
+     * Count the units of each status within a sliding window of time buckets,
+     * and select the status with the largest count.
+     */
+
+    WINDOW,
+
+    /**
+     * Count each signal within a sliding window of time buckets, and select the most
+     * severe status of a signal whose share of the signals exceeds its configured rate.
+     */
+
+    RATE,
+
+    /**
+     * Draw the units of signals scoring other than OK from a token bucket refilled
+     * at a fixed rate, with the most severe such status selected while exhausted.
+     */
+
+    BUCKET
 
   }
 
   /**
-   * A non-thread safe class used for scoring the signals fired by a service.
+   * A scoring algorithm creating the score card of each service within a context.
    *
    * @author wlouth
    * @since 1.0
    */
 
-  private static final class Atomic
-    implements Sink< Signal > {
+  interface ScoringEngine {
 
-    private static final int LOCKED   = 1;
-    private static final int UNLOCKED = 0;
+    /**
+     * Creates a new score card.
+     *
+     * @return A new score card for a service
+     */
 
-    // this guards access to the score card
-    private final AtomicInteger lock =
-      new AtomicInteger ();
+    Card card ();
 
-    private final long[]                 totals = new long[STATES.length];
-    private final int[]                  decay;
-    private final Score[]                scores;
-    private final Sink< ? super Status > sink;
-    private       int                    current;
+    /**
+     * Re-reads the configuration of the engine, other than its type and any configuration
+     * that shapes the state of a card, with existing cards picking up the configuration
+     * on their next scoring without losing any state.
+     *
+     * @param environment the environment used for resolving the scoring configuration
+     */
 
-    Atomic (
-      final Score[] scores,
-      final int[] decay,
-      final Sink< ? super Status > sink
+    void refresh (
+      Environment environment
+    );
+
+    /**
+     * Returns true if the signal is scored by the engine, with a service only
+     * given a card on its first scored signal.
+     *
+     * @param value the signal fired by a service
+     * @return true if the signal is scored by the engine
+     */
+
+    boolean accepts (
+      Signal value
+    );
+
+  }
+
+  /**
+   * The scoring state of a service, with all implementations being lock-free
+   * and not allocating on the scoring of a signal.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  interface Card {
+
+    /**
+     * Scores the signal returning the new status of the service.
+     *
+     * @param value the signal fired by the service
+     * @return The new status of the service, or null if the status has not changed.
+     */
+
+    Status score (
+      Signal value
+    );
+
+    /**
+     * Scores a number of the same signal returning the new status of the service, with
+     * the default implementation scoring the signal the number of times in turn.
+     *
+     * @param value the signal fired by the service
+     * @param count the number of times the signal was fired
+     * @return The new status of the service, or null if the status has not changed.
+     */
+
+    default Status score (
+      final Signal value,
+      final int count
     ) {
 
-      this.scores =
-        scores;
+      Status result = null;
+
+      for ( int i = 0; i < count; i++ ) {
+
+        final Status change =
+          score (
+            value
+          );
+
+        if ( change != null )
+          result = change;
 
-      this.decay =
-        decay;
+      }
 
-      this.sink =
-        sink;
+      return
+        result;
 
     }
 
-    private int score (
-      final Score score
-    ) {
+    /**
+     * Evaluates any time-based changes to the status of the service.
+     *
+     * @return The new status of the service, or null if the status has not changed.
+     */
 
-      final int[] decay =
-        this.decay;
+    Status evaluate ();
 
-      final long[] totals =
-        this.totals;
+    /**
+     * Returns the current status of the service.
+     *
+     * @return The current status of the service
+     */
 
-      long max = 0L;
-      int result = 0;
+    Status status ();
 
-      for (
-        int i = totals.length - 1;
-        i > 0; // we can ignore none
-        i--
-      ) {
+    /**
+     * Binds the card to its service, for cards that publish a change of
+     * status other than on the return from scoring or evaluating.
+     *
+     * @param service the service scored by the card
+     */
+
+    default void bind (
+      final Service service
+    ) {}
 
-        final long current =
-          totals[i];
+    /**
+     * Releases any state of the card held by its engine, such as within a slab, once
+     * its service has been evicted and the card is no longer in use.
+     */
 
-        if ( current > 0L ) {
+    default void release () {}
 
-          final long total =
-            ( current * decay[i] ) / 100L;
+  }
 
-          totals[i] =
-            total;
+  /*
+   * The base of all cards, with only the thread whose CAS
+   * changes the current status reporting the transition,
+   * so each transition is reported once.
+   */
 
-          if ( total > max ) {
+  private abstract static class Transitions
+    implements Card {
 
-            result = i;
-            max = total;
+    abstract int current ();
 
-          }
+    /*
+     * Changes the current status from an expected status.
+     */
 
-        }
+    abstract boolean change (
+      int prev,
+      int next
+    );
+
+    /*
+     * Changes the current status returning the new
+     * status, or null if the status has not changed.
+     */
+
+    final Status change (
+      final int result
+    ) {
+
+      for ( ; ; ) {
+
+        final int prev =
+          current ();
+
+        if ( prev == result )
+          return null;
+
+        if ( change ( prev, result ) )
+          return STATES[result];
 
       }
 
-      final int status =
-        score.status;
+    }
 
-      final long total =
-        totals[status] += score.units;
+    @Override
+    public final Status status () {
 
       return
-        total > max
-        ? status
-        : result;
+        STATES[current ()];
 
     }
 
-    private int update (
-      final Score score
-    ) {
+  }
 
-      final AtomicInteger atomic =
-        lock;
+  /*
+   * The base of all cards holding the current status in a field.
+   */
 
-      try {
+  private abstract static class Current
+    extends Transitions {
 
-        // spin-and-yield strategy with the
-        // assumption that the scoring of a
-        // status (or signal) is very fast
-        // along with a change event dispatch
-        // if indeed the status has changed
+    private static final AtomicIntegerFieldUpdater< Current > CURRENT =
+      AtomicIntegerFieldUpdater.newUpdater (
+        Current.class,
+        "current"
+      );
 
-        while ( !atomic.compareAndSet ( UNLOCKED, LOCKED ) )
-          //noinspection CallToThreadYield
-          Thread.yield ();
+    private volatile int current;
 
-        final int status =
-          score (
-            score
-          );
+    @Override
+    final int current () {
 
-        return
-          current == status
-          ? -1
-          : ( current = status );
+      return
+        current;
+
+    }
 
-      } finally {
+    @Override
+    final boolean change (
+      final int prev,
+      final int next
+    ) {
 
-        atomic.set (
-          UNLOCKED
+      return
+        CURRENT.compareAndSet (
+          this,
+          prev,
+          next
         );
 
-      }
+    }
+
+  }
+
+  /**
+   * A slab of primitive state, for the cards of a context, indexed by a dense id with
+   * each id allotted a fixed stride of longs. The slab is split into chunks, doubling
+   * in size, so a context with few services only holds a small slab, with the chunks
+   * never moved once allotted so that a card can hold on to its chunk. The ids of the
+   * released cards, such as those of evicted services, are cleared and reused.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Slab {
+
+    // the number of ids within the first chunk
+    private static final int FIRST = 16;
+    private static final int BITS  = Integer.numberOfTrailingZeros ( FIRST );
+
+    private final    int               stride;
+    private final    AtomicInteger     ids;
+    private volatile AtomicLongArray[] chunks;
+
+    // the released ids, guarded by the slab
+    private          int[] free = new int[0];
+    private volatile int   frees;
+
+    Slab (
+      final int stride
+    ) {
+
+      this.stride =
+        stride;
+
+      ids =
+        new AtomicInteger ();
+
+      chunks =
+        new AtomicLongArray[0];
 
     }
 
-    @Override
-    public void accept (
-      final Names.Name name,
-      final Orientation orientation,
-      final Signal value
+    private static int index (
+      final int id
     ) {
 
-      final int status =
-        update (
-          scores[value.ordinal ()]
-        );
+      return
+        31 - Integer.numberOfLeadingZeros ( id + FIRST ) - BITS;
+
+    }
 
-      if ( status >= 0 ) {
+    /*
+     * Allots the next id, along with its chunk, with the chunk
+     * installed before the id is published, so that any id below
+     * the size can be read without racing the growth of the chunks.
+     */
 
-        sink.accept (
-          name,
-          EMIT,
-          STATES[status]
-        );
+    int allocate () {
+
+      if ( frees > 0 ) {
+
+        final int id =
+          reuse ();
+
+        if ( id >= 0 )
+          return id;
 
       }
+
+      int id;
+
+      do {
+
+        id =
+          ids.get ();
+
+        final int chunk =
+          index (
+            id
+          );
+
+        if ( chunk >= chunks.length )
+          grow ( chunk );
+
+      } while (
+        !ids.compareAndSet (
+          id,
+          id + 1
+        )
+      );
+
+      return
+        id;
+
+    }
+
+    private synchronized int reuse () {
+
+      final int count =
+        frees;
+
+      if ( count == 0 )
+        return -1;
+
+      frees =
+        count - 1;
+
+      return
+        free[count - 1];
+
+    }
+
+    /*
+     * Clears the state of the id held within the chunk at the base,
+     * for reuse by a later card, with the caller ensuring the id is
+     * no longer in use.
+     */
+
+    synchronized void release (
+      final AtomicLongArray chunk,
+      final int base
+    ) {
+
+      for ( int i = 0; i < stride; i++ ) {
+
+        chunk.set (
+          base + i,
+          0L
+        );
+
+      }
+
+      final int count =
+        frees;
+
+      if ( count == free.length ) {
+
+        free =
+          Arrays.copyOf (
+            free,
+            Math.max ( count << 1, FIRST )
+          );
+
+      }
+
+      // the id is recovered from the size of its chunk
+
+      free[count] =
+        base / stride + chunk.length () / stride - FIRST;
+
+      frees =
+        count + 1;
+
+    }
+
+    void release (
+      final int id
+    ) {
+
+      release (
+        chunk ( id ),
+        base ( id )
+      );
+
+    }
+
+    private synchronized void grow (
+      final int chunk
+    ) {
+
+      final AtomicLongArray[] current =
+        chunks;
+
+      if ( chunk < current.length )
+        return;
+
+      final AtomicLongArray[] next =
+        Arrays.copyOf (
+          current,
+          chunk + 1
+        );
+
+      for ( int i = current.length; i <= chunk; i++ ) {
+
+        //noinspection ObjectAllocationInLoop
+        next[i] =
+          new AtomicLongArray (
+            ( FIRST << i ) * stride
+          );
+
+      }
+
+      chunks =
+        next;
+
+    }
+
+    AtomicLongArray chunk (
+      final int id
+    ) {
+
+      return
+        chunks[index ( id )];
+
+    }
+
+    int base (
+      final int id
+    ) {
+
+      return
+        ( id + FIRST - ( FIRST << index ( id ) ) ) * stride;
+
+    }
+
+    int size () {
+
+      return
+        ids.get ();
+
+    }
+
+  }
+
+  /**
+   * The scoring configuration shared by all cards of a context.
+   * <p>
+   * On each scored signal the totals are decayed by the percentage retained of each,
+   * configured by {@code opensignals.services.service.status.<status>.decay}, truncated
+   * to a whole number of units.
+   * <p>
+   * A status with a half-life, configured in milliseconds by
+   * {@code opensignals.services.service.status.<status>.halflife}, is instead decayed over
+   * time, with time measured in milliseconds from the creation of the scoring and split,
+   * for each such status, into epochs of {@link #SPAN} half-lives. A unit scored within an epoch
+   * is weighted by two raised to the number of half-lives elapsed since the epoch began,
+   * so totals never need to be decayed on scoring, only rescaled on crossing an epoch.
+   * The weights are computed once per millisecond and shared via a {@link Tick}.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Scoring
+    implements ScoringEngine {
+
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicReferenceFieldUpdater< Scoring, Tick > TICK =
+      AtomicReferenceFieldUpdater.newUpdater (
+        Scoring.class,
+        Tick.class,
+        "tick"
+      );
+
+    // the number of half-lives within an epoch
+    static final int SPAN = 64;
+
+    // the current status followed by the total of each status
+    // and then the step and lead of the card
+    final Slab slab =
+      new Slab (
+        STATES.length + 1
+      );
+
+    private final    long origin;
+    private volatile Tick tick;
+
+    Scoring (
+      final Score[] scores,
+      final int[] decay,
+      final long[] halflife
+    ) {
+
+      final Config config =
+        new Config (
+          scores,
+          decay,
+          halflife
+        );
+
+      if ( config.timed )
+        Clock.start ();
+
+      origin =
+        Clock.nanos ();
+
+      tick =
+        new Tick (
+          config,
+          0L
+        );
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new AdditiveCard (
+          this
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        Sinks.accepts (
+          tick.config.mask,
+          value
+        );
+
+    }
+
+    /*
+     * Swaps in the configuration with the next tick, clearing all
+     * totals when the half-lives change, as the epochs of the
+     * totals would then be misread.
+     */
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      final Config config =
+        new Config (
+          scores (
+            environment
+          ),
+          decays (
+            environment
+          ),
+          halflives (
+            environment
+          )
+        );
+
+      if ( config.timed )
+        Clock.start ();
+
+      Tick prev;
+
+      do {
+
+        prev =
+          tick;
+
+      } while (
+        !TICK.compareAndSet (
+          this,
+          prev,
+          new Tick (
+            config,
+            prev.time
+          )
+        )
+      );
+
+      if ( !Arrays.equals ( config.halflife, prev.config.halflife ) )
+        clear ();
+
+    }
+
+    private void clear () {
+
+      for ( int id = slab.size () - 1; id >= 0; id-- ) {
+
+        final AtomicLongArray chunk =
+          slab.chunk (
+            id
+          );
+
+        final int base =
+          slab.base (
+            id
+          );
+
+        // the step and lead are cleared along with the totals
+
+        for ( int i = 1; i <= STATES.length; i++ ) {
+
+          chunk.set (
+            base + i,
+            0L
+          );
+
+        }
+
+      }
+
+    }
+
+    /*
+     * Returns the configuration and weights for the current millisecond,
+     * with racing threads possibly each computing the same tick.
+     */
+
+    Tick tick () {
+
+      final Tick tick =
+        this.tick;
+
+      // without half-lives there is no need to read the time
+
+      if ( !tick.config.timed )
+        return tick;
+
+      // the origin may predate the start of the clock
+
+      final long time =
+        TimeUnit.NANOSECONDS.toMillis (
+          Math.max (
+            Clock.nanos () - origin,
+            0L
+          )
+        );
+
+      if ( tick.time == time )
+        return tick;
+
+      final Tick next =
+        new Tick (
+          tick.config,
+          time
+        );
+
+      // a tick swapped in by a refresh is not overwritten
+
+      TICK.compareAndSet (
+        this,
+        tick,
+        next
+      );
+
+      return
+        next;
+
+    }
+
+    /**
+     * The configuration of the additive engine, swapped in on a refresh.
+     *
+     * @author wlouth
+     * @since 1.0
+     */
+
+    static final class Config {
+
+      final Score[] scores;
+      final int[]   decay;
+      final long[]  halflife;
+      final int     mask;
+      final boolean uniform;
+      final boolean timed;
+
+      @SuppressWarnings ( "AssignmentOrReturnOfFieldWithMutableType" )
+      Config (
+        final Score[] scores,
+        final int[] decay,
+        final long[] halflife
+      ) {
+
+        this.scores =
+          scores;
+
+        this.decay =
+          decay;
+
+        this.halflife =
+          halflife;
+
+        mask =
+          mask (
+            scores
+          );
+
+        boolean timed = false;
+
+        for ( int i = 1; i < halflife.length; i++ )
+          timed |= halflife[i] > 0L;
+
+        this.timed =
+          timed;
+
+        // the scored statuses retaining a total all retain the same
+        // percentage, with those not retaining any total excluded
+
+        int retained = 0;
+        boolean uniform = !timed;
+
+        for ( final Score score : scores ) {
+
+          if ( score == null || decay[score.status] == 0 )
+            continue;
+
+          if ( retained == 0 )
+            retained = decay[score.status];
+
+          uniform &= decay[score.status] == retained;
+
+        }
+
+        this.uniform =
+          uniform;
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The configuration, along with the epoch and weighting of each status,
+   * for a millisecond in time.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Tick {
+
+    final Scoring.Config config;
+    final long           time;
+    final int[]          epochs;
+    final float[]        weights;
+    final float[]        decays;
+
+    Tick (
+      final Scoring.Config config,
+      final long time
+    ) {
+
+      final long[] halflife =
+        config.halflife;
+
+      final int count =
+        halflife.length;
+
+      this.config =
+        config;
+
+      this.time =
+        time;
+
+      epochs =
+        new int[count];
+
+      weights =
+        new float[count];
+
+      decays =
+        new float[count];
+
+      for ( int i = 1; i < count; i++ ) {
+
+        // a status without a half-life stays within the
+        // first epoch with its units weighted as scored
+
+        if ( halflife[i] == 0L ) {
+
+          weights[i] = 1.0F;
+          decays[i] = 1.0F;
+
+          continue;
+
+        }
+
+        final long span =
+          halflife[i] * Scoring.SPAN;
+
+        final long epoch =
+          time / span;
+
+        final double weight =
+          Math.pow (
+            2.0D,
+            (double) ( time - epoch * span ) / halflife[i]
+          );
+
+        epochs[i] =
+          (int) epoch;
+
+        weights[i] =
+          (float) weight;
+
+        decays[i] =
+          (float) ( 1.0D / weight );
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of the additive engine.
+   * <p>
+   * Each status total is held in a single long, updated with a CAS. A status without a
+   * half-life packs the whole total along with the step, being the count of signals
+   * scored by the card, as of which the total was last decayed. The step is shared by
+   * all of the totals of the card, in place of decaying each total on each signal, so
+   * scoring a signal only advances the step and decays and adds to the total of its
+   * status, with each other total decayed lazily, to the step, when read. A status
+   * with a half-life packs the epoch the total was last scored within along with the
+   * forward weighted total as a float, decayed over time as a shared scale factor.
+   * <p>
+   * When the statuses retaining a total all retain the same percentage, the status
+   * with the largest retained total, the lead, is kept along with the step, as the
+   * ordering of such totals is unchanged by their decay, other than a more severe
+   * total decaying into a tie with the lead. The status is then selected by reading
+   * the total of the lead, along with any more severe total to break a tie, rather
+   * than scanning all of the totals. An idle card with half-lives recovers to NONE
+   * once all of its decayed totals fall below half a unit.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class AdditiveCard
+    extends Transitions {
+
+    // the slot of the step and the lead, after the totals
+    private static final int STATE = STATES.length;
+    private static final int LEAD  = 0xFF;
+    private static final int BITS  = 8;
+
+    // the steps between the restamping of the totals, so
+    // a difference of steps never overflows an int
+    private static final long RESTAMP = ( 1L << 20 ) - 1L;
+
+    private static final int   SHIFT = -Scoring.SPAN;
+    private static final float FLOOR = 0.5F;
+
+    private final Scoring         scoring;
+    private final AtomicLongArray slab;
+    private final int             base;
+
+    AdditiveCard (
+      final Scoring scoring
+    ) {
+
+      this.scoring =
+        scoring;
+
+      final Slab slab =
+        scoring.slab;
+
+      final int id =
+        slab.allocate ();
+
+      this.slab =
+        slab.chunk (
+          id
+        );
+
+      base =
+        slab.base (
+          id
+        );
+
+    }
+
+    @Override
+    int current () {
+
+      return
+        (int) slab.get (
+          base
+        );
+
+    }
+
+    @Override
+    boolean change (
+      final int prev,
+      final int next
+    ) {
+
+      return
+        slab.compareAndSet (
+          base,
+          prev,
+          next
+        );
+
+    }
+
+    private static long pack (
+      final int epoch,
+      final float total
+    ) {
+
+      return
+        pack (
+          epoch,
+          Float.floatToRawIntBits ( total )
+        );
+
+    }
+
+    private static long pack (
+      final int stamp,
+      final int total
+    ) {
+
+      return
+        (long) stamp << 32 | total & 0xFFFFFFFFL;
+
+    }
+
+    private static int epoch (
+      final long word
+    ) {
+
+      return
+        (int) ( word >>> 32 );
+
+    }
+
+    private static float total (
+      final long word
+    ) {
+
+      return
+        Float.intBitsToFloat (
+          (int) word
+        );
+
+    }
+
+    private static int units (
+      final long word
+    ) {
+
+      return
+        (int) word;
+
+    }
+
+    /*
+     * Decays a whole total by the percentage retained on each of a
+     * number of steps, truncating on each step, as when each total
+     * was decayed on each scored signal, with the loop ending once
+     * the total reaches zero.
+     */
+
+    private static int decay (
+      final int total,
+      final int percent,
+      final int steps
+    ) {
+
+      if ( steps <= 0 || percent == 100 )
+        return total;
+
+      if ( percent == 0 )
+        return 0;
+
+      long result = total;
+
+      for ( int i = 0; i < steps && result > 0L; i++ )
+        result = result * percent / 100L;
+
+      return
+        (int) result;
+
+    }
+
+    /*
+     * Scales a total down by a number of epochs, with anything
+     * beyond a few epochs underflowing to zero in any case.
+     */
+
+    private static float scale (
+      final float total,
+      final int epochs
+    ) {
+
+      return
+        Math.scalb (
+          total,
+          SHIFT * Math.max ( Math.min ( epochs, 4 ), -4 )
+        );
+
+    }
+
+    /*
+     * Returns the whole total of a status without a half-life decayed to the step.
+     */
+
+    private int whole (
+      final int status,
+      final long step,
+      final int[] decay
+    ) {
+
+      final long word =
+        slab.get (
+          base + status
+        );
+
+      return
+        word == 0L
+        ? 0
+        : decay (
+          units ( word ),
+          decay[status],
+          (int) step - epoch ( word )
+        );
+
+    }
+
+    /*
+     * Returns the total of a status decayed to the step, or to the
+     * time of the tick for a status with a half-life.
+     */
+
+    private float decayed (
+      final int status,
+      final Tick tick,
+      final long step
+    ) {
+
+      if ( tick.config.halflife[status] == 0L ) {
+
+        return
+          whole (
+            status,
+            step,
+            tick.config.decay
+          );
+
+      }
+
+      final long word =
+        slab.get (
+          base + status
+        );
+
+      return
+        word == 0L
+        ? 0.0F
+        : scale (
+          total ( word ) * tick.decays[status],
+          tick.epochs[status] - epoch ( word )
+        );
+
+    }
+
+    /*
+     * Decays the whole total of the status to the step and adds the units
+     * of the score, returning the new total, with a total stamped by a racing
+     * thread of a later step instead having the decayed units added to it.
+     */
+
+    private int accrue (
+      final Score score,
+      final long step,
+      final int[] decay
+    ) {
+
+      final int status =
+        score.status;
+
+      final int stamp =
+        (int) step;
+
+      long prev;
+      long next;
+      int  total;
+
+      do {
+
+        prev =
+          slab.get (
+            base + status
+          );
+
+        final int steps =
+          stamp - epoch ( prev );
+
+        if ( steps >= 0 ) {
+
+          total =
+            add (
+              decay ( units ( prev ), decay[status], steps ),
+              score.units
+            );
+
+          next =
+            pack (
+              stamp,
+              total
+            );
+
+        } else {
+
+          total =
+            add (
+              units ( prev ),
+              decay ( score.units, decay[status], -steps )
+            );
+
+          next =
+            pack (
+              epoch ( prev ),
+              total
+            );
+
+        }
+
+      } while (
+        !slab.compareAndSet (
+          base + status,
+          prev,
+          next
+        )
+      );
+
+      return
+        total;
+
+    }
+
+    private static int add (
+      final int total,
+      final int units
+    ) {
+
+      return
+        (int) Math.min (
+          (long) total + units,
+          Integer.MAX_VALUE
+        );
+
+    }
+
+    /*
+     * Adds the weighted units of the score to the total of its
+     * status, firstly rescaling the total if it was last scored
+     * in an earlier epoch.
+     */
+
+    private void add (
+      final Score score,
+      final Tick tick
+    ) {
+
+      final int status =
+        score.status;
+
+      final int epoch =
+        tick.epochs[status];
+
+      final float units =
+        score.units * tick.weights[status];
+
+      long prev;
+      long next;
+
+      do {
+
+        prev =
+          slab.get (
+            base + status
+          );
+
+        final int last =
+          epoch (
+            prev
+          );
+
+        // a stale tick, from a thread racing an epoch
+        // change, is scaled into the newer epoch
+
+        next =
+          epoch - last >= 0
+          ? pack ( epoch, scale ( total ( prev ), epoch - last ) + units )
+          : pack ( last, total ( prev ) + scale ( units, last - epoch ) );
+
+      } while (
+        !slab.compareAndSet (
+          base + status,
+          prev,
+          next
+        )
+      );
+
+    }
+
+    /*
+     * Restamps the whole totals with the step, once in a while, so that
+     * the difference between the step and the stamp of a total, not
+     * scored in a long while, never overflows an int.
+     */
+
+    private void restamp (
+      final long step,
+      final Scoring.Config config
+    ) {
+
+      for ( int status = 1; status < STATE; status++ ) {
+
+        if ( config.halflife[status] > 0L )
+          continue;
+
+        long prev;
+        long next;
+
+        do {
+
+          prev =
+            slab.get (
+              base + status
+            );
+
+          final int steps =
+            (int) step - epoch ( prev );
+
+          if ( prev == 0L || steps <= 0 )
+            break;
+
+          final int total =
+            decay (
+              units ( prev ),
+              config.decay[status],
+              steps
+            );
+
+          next =
+            total == 0
+            ? 0L
+            : pack ( (int) step, total );
+
+        } while (
+          !slab.compareAndSet (
+            base + status,
+            prev,
+            next
+          )
+        );
+
+      }
+
+    }
+
+    private void lead (
+      final int lead
+    ) {
+
+      long prev;
+
+      do {
+
+        prev =
+          slab.get (
+            base + STATE
+          );
+
+        if ( ( (int) prev & LEAD ) == lead )
+          return;
+
+      } while (
+        !slab.compareAndSet (
+          base + STATE,
+          prev,
+          prev & ~LEAD | lead
+        )
+      );
+
+    }
+
+    /*
+     * Selects the status from the lead, with the scored status only selected if
+     * its total exceeds that of the lead, as the other totals decayed by the same
+     * percentage remain at or below the total of the lead, other than a more severe
+     * total that has decayed into a tie with the lead and so takes over the lead.
+     * The totals of the statuses not retaining a total are zero unless scored.
+     */
+
+    private int select (
+      final int status,
+      final int total,
+      final int lead,
+      final long step,
+      final int[] decay
+    ) {
+
+      int other = 0;
+      int max   = 0;
+
+      if ( lead != 0 && lead != status ) {
+
+        max =
+          whole (
+            lead,
+            step,
+            decay
+          );
+
+        if ( max > 0 ) {
+
+          other = lead;
+
+          for ( int i = STATE - 1; i > lead; i-- ) {
+
+            if ( i != status && decay[i] > 0 && whole ( i, step, decay ) == max ) {
+
+              other = i;
+
+              break;
+
+            }
+
+          }
+
+        }
+
+      }
+
+      // the lead is only taken over by a status retaining its total
+
+      lead (
+        decay[status] == 0
+        ? other
+        : total > max || total == max && status > other
+          ? status
+          : other
+      );
+
+      return
+        total > max
+        ? status
+        : other;
+
+    }
+
+    /*
+     * Scans the decayed totals for the maximum, with ties going to the
+     * more severe status, other than the scored status which is only
+     * selected if its total exceeds the maximum of the other totals.
+     * Without half-lives the maximum starts at zero, as a whole unit
+     * is the least of a total, and otherwise at the floor of NONE, with
+     * the lead also kept for any later selection.
+     */
+
+    private int scan (
+      final Tick tick,
+      final long step,
+      final int scored
+    ) {
+
+      final Scoring.Config config =
+        tick.config;
+
+      float max =
+        config.timed
+        ? FLOOR
+        : 0.0F;
+
+      float top   = 0.0F;
+      float total = 0.0F;
+      int   lead  = 0;
+      int   other = 0;
+
+      for (
+        int i = STATE - 1;
+        i > 0; // we can ignore none
+        i--
+      ) {
+
+        final float decayed =
+          decayed (
+            i,
+            tick,
+            step
+          );
+
+        if ( config.decay[i] > 0 && decayed > top ) {
+
+          lead = i;
+          top = decayed;
+
+        }
+
+        if ( i == scored ) {
+
+          total = decayed;
+
+        } else if ( decayed > max ) {
+
+          other = i;
+          max = decayed;
+
+        }
+
+      }
+
+      if ( !config.timed )
+        lead ( lead );
+
+      return
+        scored > 0 && total > max
+        ? scored
+        : other;
+
+    }
+
+    /*
+     * Scores the signal returning the new status of the
+     * service, or null if the status has not changed.
+     */
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      // the tick holds the configuration so a refresh
+      // is picked up without any further volatile read
+
+      final Tick tick =
+        scoring.tick ();
+
+      final Scoring.Config config =
+        tick.config;
+
+      if ( !Sinks.accepts ( config.mask, value ) )
+        return null;
+
+      final Score score =
+        config.scores[value.ordinal ()];
+
+      final long state =
+        slab.getAndAdd (
+          base + STATE,
+          1L << BITS
+        );
+
+      final long step =
+        ( state >>> BITS ) + 1L;
+
+      if ( ( step & RESTAMP ) == 0L ) {
+
+        restamp (
+          step,
+          config
+        );
+
+      }
+
+      final int status =
+        score.status;
+
+      if ( config.halflife[status] > 0L ) {
+
+        add (
+          score,
+          tick
+        );
+
+        return
+          change (
+            scan (
+              tick,
+              step,
+              status
+            )
+          );
+
+      }
+
+      final int total =
+        accrue (
+          score,
+          step,
+          config.decay
+        );
+
+      return
+        change (
+          config.uniform
+          ? select ( status, total, (int) state & LEAD, step, config.decay )
+          : scan ( tick, step, status )
+        );
+
+    }
+
+    /*
+     * Evaluates the decayed totals returning the new status
+     * of the service, or null if the status has not changed.
+     */
+
+    @Override
+    public Status evaluate () {
+
+      final Tick tick =
+        scoring.tick ();
+
+      // without half-lives the totals only change on scoring
+
+      if ( !tick.config.timed )
+        return null;
+
+      return
+        change (
+          scan (
+            tick,
+            slab.get ( base + STATE ) >>> BITS,
+            0
+          )
+        );
+
+    }
+
+    @Override
+    public void release () {
+
+      scoring.slab.release (
+        slab,
+        base
+      );
+
+    }
+
+  }
+
+  /**
+   * The EWMA engine, shared by all of its cards.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Ewma
+    implements ScoringEngine {
+
+    volatile Config config;
+
+    Ewma (
+      final Score[] scores,
+      final float alpha,
+      final float threshold
+    ) {
+
+      config =
+        new Config (
+          scores,
+          alpha,
+          threshold
+        );
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new EwmaCard (
+          this
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        Sinks.accepts (
+          config.mask,
+          value
+        );
+
+    }
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      config =
+        new Config (
+          scores ( environment ),
+          EWMA_ALPHA.of ( environment ),
+          EWMA_THRESHOLD.of ( environment )
+        );
+
+    }
+
+    /**
+     * The configuration of the EWMA engine, swapped in on a refresh.
+     *
+     * @author wlouth
+     * @since 1.0
+     */
+
+    static final class Config {
+
+      final Score[] scores;
+      final int     mask;
+      final float   alpha;
+      final float   threshold;
+
+      @SuppressWarnings ( "AssignmentOrReturnOfFieldWithMutableType" )
+      Config (
+        final Score[] scores,
+        final float alpha,
+        final float threshold
+      ) {
+
+        this.scores =
+          scores;
+
+        mask =
+          mask (
+            scores
+          );
+
+        this.alpha =
+          Math.min (
+            Math.max (
+              alpha,
+              Float.MIN_NORMAL
+            ),
+            1.0F
+          );
+
+        this.threshold =
+          threshold;
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of the EWMA engine.
+   * <p>
+   * The entire state of the card is packed into a single long, updated with a CAS,
+   * holding the moving average of the error ratio as a float along with the most
+   * severe status scored since the ratio last fell to within the threshold, and
+   * the current status. A card of a service that is repeatedly succeeding is in a
+   * steady state and so is not written to.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class EwmaCard
+    implements Card {
+
+    private static final AtomicLongFieldUpdater< EwmaCard > STATE =
+      AtomicLongFieldUpdater.newUpdater (
+        EwmaCard.class,
+        "state"
+      );
+
+    private static final int OK_STATUS = OK.ordinal ();
+
+    private final    Ewma engine;
+    private volatile long state;
+
+    EwmaCard (
+      final Ewma engine
+    ) {
+
+      this.engine =
+        engine;
+
+    }
+
+    private static long pack (
+      final float ratio,
+      final int worst,
+      final int current
+    ) {
+
+      return
+        (long) current << 40 | (long) worst << 32 | Float.floatToRawIntBits ( ratio ) & 0xFFFFFFFFL;
+
+    }
+
+    private static float ratio (
+      final long state
+    ) {
+
+      return
+        Float.intBitsToFloat (
+          (int) state
+        );
+
+    }
+
+    private static int worst (
+      final long state
+    ) {
+
+      return
+        (int) ( state >>> 32 ) & 0xFF;
+
+    }
+
+    private static int current (
+      final long state
+    ) {
+
+      return
+        (int) ( state >>> 40 );
+
+    }
+
+    private static long next (
+      final Ewma.Config config,
+      final long state,
+      final int status
+    ) {
+
+      final float alpha =
+        config.alpha;
+
+      final float threshold =
+        config.threshold;
+
+      final boolean error =
+        status != OK_STATUS;
+
+      final float prev =
+        ratio (
+          state
+        );
+
+      final float ratio =
+        prev + alpha * ( ( error ? 1.0F : 0.0F ) - prev );
+
+      if ( ratio <= threshold ) {
+
+        return
+          pack (
+            ratio,
+            0,
+            OK_STATUS
+          );
+
+      }
+
+      final int worst =
+        error
+        ? Math.max ( worst ( state ), status )
+        : worst ( state );
+
+      return
+        pack (
+          ratio,
+          worst,
+          worst
+        );
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      final Ewma.Config config =
+        engine.config;
+
+      if ( !Sinks.accepts ( config.mask, value ) )
+        return null;
+
+      final int status =
+        config.scores[value.ordinal ()].status;
+
+      long prev;
+      long next;
+
+      do {
+
+        prev =
+          state;
+
+        next =
+          next (
+            config,
+            prev,
+            status
+          );
+
+      } while (
+        next != prev &&
+          !STATE.compareAndSet ( this, prev, next )
+      );
+
+      final int current =
+        current (
+          next
+        );
+
+      return
+        current != current ( prev )
+        ? STATES[current]
+        : null;
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      // the ratio only moves on scoring
+
+      return
+        null;
+
+    }
+
+    @Override
+    public Status status () {
+
+      return
+        STATES[current ( state )];
+
+    }
+
+  }
+
+  /**
+   * The sliding window engine, shared by all of its cards.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Window
+    implements ScoringEngine {
+
+    final int  buckets;
+    final long width;
+
+    private final long origin;
+
+    volatile Config config;
+
+    Window (
+      final Score[] scores,
+      final int span,
+      final int buckets
+    ) {
+
+      config =
+        new Config (
+          scores
+        );
+
+      this.buckets =
+        Math.max (
+          buckets,
+          1
+        );
+
+      width =
+        Math.max (
+          TimeUnit.MILLISECONDS.toNanos ( span ) / this.buckets,
+          1L
+        );
+
+      Clock.start ();
+
+      origin =
+        Clock.nanos ();
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new WindowCard (
+          this
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        Sinks.accepts (
+          config.mask,
+          value
+        );
+
+    }
+
+    // the span and buckets shape the counts held by each card
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      config =
+        new Config (
+          scores (
+            environment
+          )
+        );
+
+    }
+
+    /*
+     * Returns the index of the current bucket, in time.
+     */
+
+    int tick () {
+
+      return
+        (int) ( ( Clock.nanos () - origin ) / width );
+
+    }
+
+    /**
+     * The configuration of the sliding window engine, swapped in on a refresh.
+     *
+     * @author wlouth
+     * @since 1.0
+     */
+
+    static final class Config {
+
+      final Score[] scores;
+      final int     mask;
+
+      @SuppressWarnings ( "AssignmentOrReturnOfFieldWithMutableType" )
+      Config (
+        final Score[] scores
+      ) {
+
+        this.scores =
+          scores;
+
+        mask =
+          mask (
+            scores
+          );
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of the sliding window engine.
+   * <p>
+   * The count of each status within each bucket is held in a single long, updated
+   * with a CAS, packing the tick of the bucket along with the count, so a bucket
+   * is reset by the first scoring in a later tick without any coordination.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class WindowCard
+    extends Current {
+
+    private final Window          engine;
+    private final int             buckets;
+    private final AtomicLongArray counts;
+
+    WindowCard (
+      final Window engine
+    ) {
+
+      this.engine =
+        engine;
+
+      buckets =
+        engine.buckets;
+
+      counts =
+        new AtomicLongArray (
+          buckets * STATES.length
+        );
+
+    }
+
+    private static int tick (
+      final long word
+    ) {
+
+      return
+        (int) ( word >>> 32 );
+
+    }
+
+    /*
+     * Sums the counts of a status across the buckets within the window.
+     */
+
+    private long count (
+      final int status,
+      final int tick
+    ) {
+
+      final int length =
+        STATES.length;
+
+      long count = 0L;
+
+      for ( int i = 0; i < buckets; i++ ) {
+
+        final long word =
+          counts.get (
+            i * length + status
+          );
+
+        if ( word != 0L && tick - tick ( word ) < buckets )
+          count += word & 0xFFFFFFFFL;
+
+      }
+
+      return
+        count;
+
+    }
+
+    private Status evaluate (
+      final int tick
+    ) {
+
+      long max = 0L;
+      int result = 0;
+
+      for (
+        int i = STATES.length - 1;
+        i > 0; // we can ignore none
+        i--
+      ) {
+
+        final long count =
+          count (
+            i,
+            tick
+          );
+
+        if ( count > max ) {
+
+          result = i;
+          max = count;
+
+        }
+
+      }
+
+      return
+        change (
+          result
+        );
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      final Window.Config config =
+        engine.config;
+
+      if ( !Sinks.accepts ( config.mask, value ) )
+        return null;
+
+      final Score score =
+        config.scores[value.ordinal ()];
+
+      final int tick =
+        engine.tick ();
+
+      final int index =
+        tick % buckets * STATES.length + score.status;
+
+      long prev;
+      long next;
+
+      do {
+
+        prev =
+          counts.get (
+            index
+          );
+
+        next =
+          tick ( prev ) == tick && prev != 0L
+          ? prev + Math.min ( score.units, 0xFFFFFFFFL - ( prev & 0xFFFFFFFFL ) )
+          : (long) tick << 32 | score.units;
+
+      } while (
+        !counts.compareAndSet (
+          index,
+          prev,
+          next
+        )
+      );
+
+      // scoring the current status can only
+      // strengthen it so we can skip evaluating
+
+      return
+        score.status != current ()
+        ? evaluate ( tick )
+        : null;
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      return
+        evaluate (
+          engine.tick ()
+        );
+
+    }
+
+  }
+
+  /**
+   * The rate engine, shared by all of its cards.
+   * <p>
+   * Each signal scored is given a column within a row, of a card, with the first
+   * column of a row holding the tick of the time bucket the row is counting.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Rate
+    implements ScoringEngine {
+
+    final int   mask;
+    final int[] columns;
+    final int[] statuses;
+    final int   width;
+    final int   buckets;
+    final long  span;
+
+    private final long origin;
+
+    volatile float[] rates;
+
+    Rate (
+      final Score[] scores,
+      final float[] rates,
+      final int span,
+      final int buckets
+    ) {
+
+      mask =
+        mask (
+          scores
+        );
+
+      columns =
+        new int[scores.length];
+
+      int width = 1;
+
+      for ( int i = 0; i < scores.length; i++ ) {
+
+        columns[i] =
+          scores[i] != null
+          ? width++
+          : 0;
+
+      }
+
+      this.width =
+        width;
+
+      statuses =
+        new int[width];
+
+      for ( int i = 0; i < scores.length; i++ ) {
+
+        if ( scores[i] != null ) {
+
+          statuses[columns[i]] =
+            scores[i].status;
+
+        }
+
+      }
+
+      this.rates =
+        columns (
+          rates
+        );
+
+      this.buckets =
+        Math.max (
+          buckets,
+          1
+        );
+
+      this.span =
+        Math.max (
+          TimeUnit.MILLISECONDS.toNanos ( span ) / this.buckets,
+          1L
+        );
+
+      Clock.start ();
+
+      origin =
+        Clock.nanos ();
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new RateCard (
+          this
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        Sinks.accepts (
+          mask,
+          value
+        );
+
+    }
+
+    // the signals scored, and so the columns of
+    // the rows held by each card, are not refreshed
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      rates =
+        columns (
+          rates (
+            environment
+          )
+        );
+
+    }
+
+    /*
+     * Maps the rate of each signal onto its column.
+     */
+
+    private float[] columns (
+      final float[] rates
+    ) {
+
+      final float[] result =
+        new float[width];
+
+      for ( int i = 0; i < columns.length; i++ ) {
+
+        if ( columns[i] != 0 ) {
+
+          result[columns[i]] =
+            rates[i];
+
+        }
+
+      }
+
+      return
+        result;
+
+    }
+
+    /*
+     * Returns the index of the current bucket, in time.
+     */
+
+    int tick () {
+
+      return
+        (int) ( ( Clock.nanos () - origin ) / span );
+
+    }
+
+  }
+
+  /**
+   * The card of the rate engine.
+   * <p>
+   * The counts are held in a compact int ring of rows indexed by the tick modulo the
+   * number of buckets, with a row lazily rotated, on being first counted into within
+   * a later tick, by the one thread whose CAS marks the row as being rotated. A card
+   * of an idle service is never touched. As the ratios can fall on any signal, as well
+   * as with time, the status is evaluated at most once per tick, unless a signal
+   * scores a status, other than OK, that might be newly exceeding its rate.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class RateCard
+    extends Current {
+
+    private static final AtomicIntegerFieldUpdater< RateCard > EVALUATED =
+      AtomicIntegerFieldUpdater.newUpdater (
+        RateCard.class,
+        "evaluated"
+      );
+
+    private static final int ROTATING  = Integer.MIN_VALUE;
+    private static final int OK_STATUS = OK.ordinal ();
+
+    private final    Rate               engine;
+    private final    int[]              columns;
+    private final    int[]              statuses;
+    private final    int                mask;
+    private final    int                width;
+    private final    int                buckets;
+    private final    AtomicIntegerArray ring;
+    private volatile int                evaluated;
+
+    RateCard (
+      final Rate engine
+    ) {
+
+      this.engine =
+        engine;
+
+      columns =
+        engine.columns;
+
+      statuses =
+        engine.statuses;
+
+      mask =
+        engine.mask;
+
+      width =
+        engine.width;
+
+      buckets =
+        engine.buckets;
+
+      ring =
+        new AtomicIntegerArray (
+          buckets * width
+        );
+
+      // no tick has been evaluated
+
+      evaluated =
+        -1;
+
+    }
+
+    /*
+     * Returns the offset of the row counting the tick,
+     * rotating the row if it last counted an earlier tick.
+     */
+
+    private int row (
+      final int tick
+    ) {
+
+      final int row =
+        tick % buckets * width;
+
+      for ( ; ; ) {
+
+        final int last =
+          ring.get (
+            row
+          );
+
+        if ( last == tick )
+          return row;
+
+        if ( last == ROTATING ) {
+
+          //noinspection CallToThreadYield
+          Thread.yield ();
+
+        } else if ( ring.compareAndSet ( row, last, ROTATING ) ) {
+
+          for ( int i = 1; i < width; i++ ) {
+
+            ring.set (
+              row + i,
+              0
+            );
+
+          }
+
+          ring.set (
+            row,
+            tick
+          );
+
+          return
+            row;
+
+        }
+
+      }
+
+    }
+
+    /*
+     * Sums a column across the rows within the window, with
+     * the first column, the ticks, used for all columns.
+     */
+
+    private int count (
+      final int column,
+      final int tick
+    ) {
+
+      int count = 0;
+
+      for (
+        int row = 0;
+        row < ring.length ();
+        row += width
+      ) {
+
+        final int age =
+          tick - ring.get ( row );
+
+        if ( age >= 0 && age < buckets ) {
+
+          count +=
+            column == 0
+            ? total ( row )
+            : ring.get ( row + column );
+
+        }
+
+      }
+
+      return
+        count;
+
+    }
+
+    private int total (
+      final int row
+    ) {
+
+      int total = 0;
+
+      for ( int i = 1; i < width; i++ ) {
+
+        total +=
+          ring.get (
+            row + i
+          );
+
+      }
+
+      return
+        total;
+
+    }
+
+    private Status evaluate (
+      final int tick
+    ) {
+
+      final int total =
+        count (
+          0,
+          tick
+        );
+
+      int result =
+        total > 0
+        ? OK_STATUS
+        : 0;
+
+      final float[] rates =
+        engine.rates;
+
+      for ( int i = 1; i < width; i++ ) {
+
+        final int status =
+          statuses[i];
+
+        if (
+          status > result &&
+            rates[i] > 0F &&
+            count ( i, tick ) > rates[i] * total
+        ) {
+
+          result =
+            status;
+
+        }
+
+      }
+
+      return
+        change (
+          result
+        );
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      if ( !Sinks.accepts ( mask, value ) )
+        return null;
+
+      final int column =
+        columns[value.ordinal ()];
+
+      final int tick =
+        engine.tick ();
+
+      ring.incrementAndGet (
+        row ( tick ) + column
+      );
+
+      final int status =
+        statuses[column];
+
+      final int current =
+        current ();
+
+      final int last =
+        evaluated;
+
+      // a status other than OK can only be newly entered on
+      // its own signal, as can OK when there is no status
+
+      return
+        status != current && ( status != OK_STATUS || current == 0 )
+          || last != tick && EVALUATED.compareAndSet ( this, last, tick )
+        ? evaluate ( tick )
+        : null;
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      final int tick =
+        engine.tick ();
+
+      final int last =
+        evaluated;
+
+      return
+        last != tick && EVALUATED.compareAndSet ( this, last, tick )
+        ? evaluate ( tick )
+        : null;
+
+    }
+
+  }
+
+  /**
+   * An engine wrapping another engine with the detection of deviations, in the rate
+   * of signals fired by a service, that lift a status of OK to DEVIATING.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Deviations
+    implements ScoringEngine {
+
+    private final ScoringEngine engine;
+    private final Detector      detector;
+    private final long          span;
+    private final long          origin;
+
+    Deviations (
+      final ScoringEngine engine,
+      final float sigma,
+      final float alpha,
+      final int span,
+      final int warmup
+    ) {
+
+      this.engine =
+        engine;
+
+      detector =
+        new Detector (
+          sigma,
+          alpha,
+          warmup
+        );
+
+      this.span =
+        Math.max (
+          TimeUnit.MILLISECONDS.toNanos ( span ),
+          1L
+        );
+
+      Clock.start ();
+
+      origin =
+        Clock.nanos ();
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new DeviatingCard (
+          this,
+          engine.card ()
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      // a service is only counted from its first scored signal,
+      // before which its status is NONE and so cannot deviate
+
+      return
+        engine.accepts (
+          value
+        );
+
+    }
+
+    // the span of the windows is not refreshed as it would
+    // skew the statistics gathered over the earlier windows
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      engine.refresh (
+        environment
+      );
+
+      detector.refresh (
+        DEVIATION_SIGMA.of ( environment ),
+        DEVIATION_ALPHA.of ( environment ),
+        DEVIATION_WARMUP.of ( environment )
+      );
+
+    }
+
+    /*
+     * Returns the index of the current window, in time.
+     */
+
+    int tick () {
+
+      return
+        (int) ( ( Clock.nanos () - origin ) / span );
+
+    }
+
+  }
+
+  /**
+   * A streaming detector of deviations in the count of signals within a window of time,
+   * for each of the services, by id, of a context.
+   * <p>
+   * The count of the current window is packed along with its tick into a single long,
+   * updated with a CAS, so counting a signal is a single add. The one thread whose CAS
+   * moves the window on to a later tick folds the closed count, along with a zero count
+   * for each window skipped, into the mean and variance, an exact (Welford) average over
+   * the warmup windows and an exponentially weighted average after. A window deviates
+   * when its count is more than sigma standard deviations from the mean, with the
+   * variance floored at the mean, as would be expected of a count of random arrivals.
+   * <p>
+   * The state of each service is held within a slab, as the window, the mean and
+   * variance packed as floats, and the number of windows along with whether the
+   * last window closed deviated.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Detector {
+
+    private static final int WINDOW = 0;
+    private static final int STATS  = 1;
+    private static final int META   = 2;
+
+    // the most skipped windows folded in on a close
+    private static final int GAP = 64;
+
+    private final    Slab   slab;
+    private volatile Config config;
+
+    Detector (
+      final float sigma,
+      final float alpha,
+      final int warmup
+    ) {
+
+      config =
+        new Config (
+          sigma,
+          alpha,
+          warmup
+        );
+
+      slab =
+        new Slab (
+          3
+        );
+
+    }
+
+    /*
+     * Swaps in the configuration, read only on the closing of a window,
+     * with the statistics of each service carried over as they are.
+     */
+
+    void refresh (
+      final float sigma,
+      final float alpha,
+      final int warmup
+    ) {
+
+      config =
+        new Config (
+          sigma,
+          alpha,
+          warmup
+        );
+
+    }
+
+    /*
+     * Allots the state of a service with its first window.
+     */
+
+    int allocate (
+      final int tick
+    ) {
+
+      final int id =
+        slab.allocate ();
+
+      slab.chunk ( id ).set (
+        slab.base ( id ) + WINDOW,
+        (long) tick << 32
+      );
+
+      return
+        id;
+
+    }
+
+    /*
+     * Counts a number of signals, which can be zero, within the
+     * window of the tick, returning true if the deviating of the
+     * service changed on the closing of an earlier window.
+     */
+
+    boolean count (
+      final int id,
+      final int tick,
+      final int count
+    ) {
+
+      final AtomicLongArray chunk =
+        slab.chunk (
+          id
+        );
+
+      final int base =
+        slab.base (
+          id
+        );
+
+      for ( ; ; ) {
+
+        final long prev =
+          chunk.get (
+            base + WINDOW
+          );
+
+        final int last =
+          (int) ( prev >>> 32 );
+
+        // a stale tick, from a thread racing the closing
+        // of a window, is counted in the newer window
+
+        if ( tick - last <= 0 ) {
+
+          if ( count == 0 || chunk.compareAndSet ( base + WINDOW, prev, prev + count ) )
+            return false;
+
+        } else if ( chunk.compareAndSet ( base + WINDOW, prev, (long) tick << 32 | count ) ) {
+
+          return
+            close (
+              chunk,
+              base,
+              (int) prev,
+              tick - last - 1
+            );
+
+        }
+
+      }
+
+    }
+
+    void release (
+      final int id
+    ) {
+
+      slab.release (
+        id
+      );
+
+    }
+
+    boolean deviating (
+      final int id
+    ) {
+
+      return
+        ( slab.chunk ( id ).get ( slab.base ( id ) + META ) & 1L ) != 0L;
+
+    }
+
+    /*
+     * Folds the closed window, and any skipped windows, into the
+     * statistics, written only by the thread closing the window.
+     */
+
+    private boolean close (
+      final AtomicLongArray chunk,
+      final int base,
+      final int count,
+      final int gap
+    ) {
+
+      final Config config =
+        this.config;
+
+      final float sigma =
+        config.sigma;
+
+      final float alpha =
+        config.alpha;
+
+      final int warmup =
+        config.warmup;
+
+      final long stats =
+        chunk.get (
+          base + STATS
+        );
+
+      final long meta =
+        chunk.get (
+          base + META
+        );
+
+      float mean =
+        Float.intBitsToFloat (
+          (int) ( stats >>> 32 )
+        );
+
+      float variance =
+        Float.intBitsToFloat (
+          (int) stats
+        );
+
+      int windows =
+        (int) ( meta >>> 32 );
+
+      final int skipped =
+        Math.min (
+          gap,
+          GAP
+        );
+
+      boolean result = false;
+
+      for ( int i = 0; i <= skipped; i++ ) {
+
+        // the closed count is folded first
+        // followed by the skipped windows
+
+        final float delta =
+          ( i == 0 ? count : 0 ) - mean;
+
+        // a refreshed non-positive sigma disables the detection
+
+        result =
+          windows >= warmup &&
+            sigma > 0F &&
+            delta * delta > sigma * sigma * Math.max ( variance, mean );
+
+        // an exact average until warmed up
+
+        final float weight =
+          windows < warmup
+          ? Math.max ( 1.0F / ++windows, alpha )
+          : alpha;
+
+        mean +=
+          weight * delta;
+
+        variance =
+          ( 1.0F - weight ) * ( variance + weight * delta * delta );
+
+      }
+
+      chunk.set (
+        base + STATS,
+        (long) Float.floatToRawIntBits ( mean ) << 32 | Float.floatToRawIntBits ( variance ) & 0xFFFFFFFFL
+      );
+
+      chunk.set (
+        base + META,
+        (long) windows << 32 | ( result ? 1L : 0L )
+      );
+
+      return
+        result != ( ( meta & 1L ) != 0L );
+
+    }
+
+    /**
+     * The configuration of the detector, swapped in on a refresh.
+     *
+     * @author wlouth
+     * @since 1.0
+     */
+
+    static final class Config {
+
+      final float sigma;
+      final float alpha;
+      final int   warmup;
+
+      Config (
+        final float sigma,
+        final float alpha,
+        final int warmup
+      ) {
+
+        this.sigma =
+          sigma;
+
+        this.alpha =
+          Math.min (
+            Math.max (
+              alpha,
+              Float.MIN_NORMAL
+            ),
+            1.0F
+          );
+
+        this.warmup =
+          Math.max (
+            warmup,
+            1
+          );
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of an engine wrapped with the detection of deviations.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class DeviatingCard
+    extends Current {
+
+    private static final int OK_STATUS        = OK.ordinal ();
+    private static final int DEVIATING_STATUS = DEVIATING.ordinal ();
+
+    private final Deviations deviations;
+    private final Card       card;
+    private final int        id;
+
+    DeviatingCard (
+      final Deviations deviations,
+      final Card card
+    ) {
+
+      this.deviations =
+        deviations;
+
+      this.card =
+        card;
+
+      id =
+        deviations.detector.allocate (
+          deviations.tick ()
+        );
+
+    }
+
+    /*
+     * Lifts a status of OK to DEVIATING when deviating.
+     */
+
+    private Status combine () {
+
+      final int status =
+        card.status ().ordinal ();
+
+      return
+        change (
+          status == OK_STATUS && deviations.detector.deviating ( id )
+          ? DEVIATING_STATUS
+          : status
+        );
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      final boolean flipped =
+        deviations.detector.count (
+          id,
+          deviations.tick (),
+          1
+        );
+
+      return
+        card.score ( value ) != null || flipped
+        ? combine ()
+        : null;
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      final boolean flipped =
+        deviations.detector.count (
+          id,
+          deviations.tick (),
+          0
+        );
+
+      return
+        card.evaluate () != null || flipped
+        ? combine ()
+        : null;
+
+    }
+
+    @Override
+    public void release () {
+
+      card.release ();
+
+      deviations.detector.release (
+        id
+      );
+
+    }
+
+  }
+
+  /**
+   * The token bucket engine, shared by all of its cards.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Bucket
+    implements ScoringEngine {
+
+    private final long origin;
+
+    volatile Config config;
+
+    Bucket (
+      final Score[] scores,
+      final int capacity,
+      final int rate
+    ) {
+
+      config =
+        new Config (
+          scores,
+          capacity,
+          rate
+        );
+
+      Clock.start ();
+
+      origin =
+        Clock.nanos ();
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new BucketCard (
+          this
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        Sinks.accepts (
+          config.mask,
+          value
+        );
+
+    }
+
+    // the tokens held are clamped to a lowered capacity on the next refill
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      config =
+        new Config (
+          scores ( environment ),
+          BUCKET_CAPACITY.of ( environment ),
+          BUCKET_RATE.of ( environment )
+        );
+
+    }
+
+    int millis () {
+
+      return
+        (int) TimeUnit.NANOSECONDS.toMillis (
+          Clock.nanos () - origin
+        );
+
+    }
+
+    /**
+     * The configuration of the token bucket engine, swapped in on a refresh.
+     *
+     * @author wlouth
+     * @since 1.0
+     */
+
+    static final class Config {
+
+      final Score[] scores;
+      final int     mask;
+      final float   capacity;
+      final float   rate;
+
+      @SuppressWarnings ( "AssignmentOrReturnOfFieldWithMutableType" )
+      Config (
+        final Score[] scores,
+        final int capacity,
+        final int rate
+      ) {
+
+        this.scores =
+          scores;
+
+        mask =
+          mask (
+            scores
+          );
+
+        this.capacity =
+          Math.max (
+            capacity,
+            1
+          );
+
+        // the rate is converted from units per
+        // second to units per millisecond
+
+        this.rate =
+          Math.max (
+            rate,
+            0
+          ) / 1000.0F;
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of the token bucket engine.
+   * <p>
+   * The tokens of the bucket are held in a single long, updated with a CAS, packing
+   * the time of the last refill along with the number of tokens as a float, with
+   * the bucket refilled lazily on each scoring, and when read. A signal scoring OK
+   * leaves the bucket untouched, and so a service repeatedly succeeding is not
+   * written to.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class BucketCard
+    extends Current {
+
+    private static final AtomicLongFieldUpdater< BucketCard > STATE =
+      AtomicLongFieldUpdater.newUpdater (
+        BucketCard.class,
+        "state"
+      );
+
+    private static final int OK_STATUS = OK.ordinal ();
+
+    private final    Bucket engine;
+    private volatile long   state;
+
+    BucketCard (
+      final Bucket engine
+    ) {
+
+      this.engine =
+        engine;
+
+      state =
+        pack (
+          engine.config.capacity,
+          engine.millis ()
+        );
+
+    }
+
+    private static long pack (
+      final float tokens,
+      final int time
+    ) {
+
+      return
+        (long) time << 32 | Float.floatToRawIntBits ( tokens ) & 0xFFFFFFFFL;
+
+    }
+
+    /*
+     * Returns the tokens of the bucket refilled up to the time.
+     */
+
+    private static float tokens (
+      final Bucket.Config config,
+      final long state,
+      final int time
+    ) {
+
+      final float tokens =
+        Float.intBitsToFloat (
+          (int) state
+        );
+
+      final int elapsed =
+        time - (int) ( state >>> 32 );
+
+      // a wrapped (negative) elapsed time
+      // means the bucket has long refilled
+
+      return
+        elapsed < 0
+        ? config.capacity
+        : Math.min ( tokens + elapsed * config.rate, config.capacity );
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      final Bucket.Config config =
+        engine.config;
+
+      if ( !Sinks.accepts ( config.mask, value ) )
+        return null;
+
+      final Score score =
+        config.scores[value.ordinal ()];
+
+      final int status =
+        score.status;
+
+      if ( status == OK_STATUS ) {
+
+        // a success only clears an exhausted bucket
+        // once it has been refilled to some extent
+
+        return
+          tokens ( config, state, engine.millis () ) > 0.0F
+          ? change ( OK_STATUS )
+          : null;
+
+      }
+
+      final int time =
+        engine.millis ();
+
+      long prev;
+      long next;
+      float tokens;
+
+      do {
+
+        prev =
+          state;
+
+        tokens =
+          tokens (
+            config,
+            prev,
+            time
+          ) - score.units;
+
+        next =
+          pack (
+            Math.max ( tokens, 0.0F ),
+            time
+          );
+
+      } while (
+        next != prev &&
+          !STATE.compareAndSet ( this, prev, next )
+      );
+
+      if ( tokens >= 0.0F ) {
+
+        return
+          change (
+            OK_STATUS
+          );
+
+      }
+
+      // the bucket is exhausted so select the most severe
+      // status scored since it was last exhausted
+
+      for ( ; ; ) {
+
+        final int current =
+          current ();
+
+        if ( current >= status )
+          return null;
+
+        if ( change ( current, status ) )
+          return STATES[status];
+
+      }
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      return
+        current () > OK_STATUS && tokens ( engine.config, state, engine.millis () ) > 0.0F
+        ? change ( OK_STATUS )
+        : null;
+
+    }
+
+  }
+
+  /**
+   * The deferred engine, wrapping an engine so that scoring, and the publishing of
+   * any change of status, is done on the evaluator thread and not the signalling
+   * thread.
+   * <p>
+   * A card marked dirty is queued, with the evaluator scheduled on the first card
+   * queued since its last run, so an idle engine has nothing scheduled and can be
+   * collected along with its context. The evaluator thread is shared by all of the
+   * deferred engines.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Deferred
+    implements ScoringEngine {
+
+    private static final AtomicIntegerFieldUpdater< Deferred > SCHEDULED =
+      AtomicIntegerFieldUpdater.newUpdater (
+        Deferred.class,
+        "scheduled"
+      );
+
+    private static final ScheduledExecutorService EVALUATOR =
+      Executors.newSingleThreadScheduledExecutor (
+        task -> {
+
+          final Thread thread =
+            new Thread (
+              task,
+              "opensignals-evaluator"
+            );
+
+          thread.setDaemon (
+            true
+          );
+
+          return
+            thread;
+
+        }
+      );
+
+    private final    ScoringEngine                         engine;
+    private final    ConcurrentLinkedQueue< DeferredCard > dirty;
+    private volatile int                                   cadence;
+    private volatile int                                   scheduled;
+
+    Deferred (
+      final ScoringEngine engine,
+      final int cadence
+    ) {
+
+      this.engine =
+        engine;
+
+      this.cadence =
+        cadence;
+
+      dirty =
+        new ConcurrentLinkedQueue<> ();
+
+    }
+
+    @Override
+    public Card card () {
+
+      return
+        new DeferredCard (
+          this,
+          engine.card ()
+        );
+
+    }
+
+    @Override
+    public boolean accepts (
+      final Signal value
+    ) {
+
+      return
+        engine.accepts (
+          value
+        );
+
+    }
+
+    // whether scoring is deferred at all is not refreshed
+
+    @Override
+    public void refresh (
+      final Environment environment
+    ) {
+
+      engine.refresh (
+        environment
+      );
+
+      cadence =
+        Math.max (
+          DEFERRED_CADENCE.of ( environment ),
+          1
+        );
+
+    }
+
+    /*
+     * Queues a card newly marked dirty, scheduling the
+     * evaluator if it is not already scheduled.
+     */
+
+    void queue (
+      final DeferredCard card
+    ) {
+
+      dirty.offer (
+        card
+      );
+
+      if ( SCHEDULED.compareAndSet ( this, 0, 1 ) ) {
+
+        EVALUATOR.schedule (
+          this::drain,
+          cadence,
+          TimeUnit.MILLISECONDS
+        );
+
+      }
+
+    }
+
+    /*
+     * Drains the queued cards, with the schedule cleared beforehand
+     * so a card queued while draining is either drained here or
+     * schedules the next run.
+     */
+
+    private void drain () {
+
+      scheduled =
+        0;
+
+      DeferredCard card;
+
+      while ( ( card = dirty.poll () ) != null ) {
+
+        card.drain ();
+
+      }
+
+    }
+
+  }
+
+  /**
+   * The card of the deferred engine.
+   * <p>
+   * Scoring a signal only increments the count of the signal, with each signal counted
+   * in a separate slot, and marks the card dirty. The evaluator scores the counts of a
+   * dirty card in signal order, as the order of the signals within a run is not kept,
+   * and then evaluates the card, publishing the status if it changed over the run.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  private static final class DeferredCard
+    implements Card {
+
+    private static final AtomicIntegerFieldUpdater< DeferredCard > DIRTY =
+      AtomicIntegerFieldUpdater.newUpdater (
+        DeferredCard.class,
+        "dirty"
+      );
+
+    private final    Deferred           deferred;
+    private final    Card               card;
+    private final    AtomicIntegerArray counts;
+    private          Service            service;
+    private volatile int                dirty;
+
+    DeferredCard (
+      final Deferred deferred,
+      final Card card
+    ) {
+
+      this.deferred =
+        deferred;
+
+      this.card =
+        card;
+
+      counts =
+        new AtomicIntegerArray (
+          SIGNALS.length
+        );
+
+    }
+
+    private void mark () {
+
+      if ( dirty == 0 && DIRTY.compareAndSet ( this, 0, 1 ) ) {
+
+        deferred.queue (
+          this
+        );
+
+      }
+
+    }
+
+    /*
+     * Scores the counts on the evaluator thread, with the card
+     * marked clean first so that any signal counted while
+     * draining marks it dirty again.
+     */
+
+    void drain () {
+
+      dirty =
+        0;
+
+      final Status prev =
+        card.status ();
+
+      for ( int i = 0; i < SIGNALS.length; i++ ) {
+
+        final int count =
+          counts.getAndSet (
+            i,
+            0
+          );
+
+        if ( count > 0 ) {
+
+          card.score (
+            SIGNALS[i],
+            count
+          );
+
+        }
+
+      }
+
+      card.evaluate ();
+
+      final Status next =
+        card.status ();
+
+      if ( next != prev && service != null ) {
+
+        service.publish (
+          next
+        );
+
+      }
+
+    }
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      counts.incrementAndGet (
+        value.ordinal ()
+      );
+
+      mark ();
+
+      return
+        null;
+
+    }
+
+    // a read of the status has the evaluator
+    // apply any time-based change on its next run
+
+    @Override
+    public Status evaluate () {
+
+      mark ();
+
+      return
+        null;
+
+    }
+
+    @Override
+    public Status status () {
+
+      return
+        card.status ();
+
+    }
+
+    @Override
+    public void bind (
+      final Service service
+    ) {
+
+      this.service =
+        service;
+
+    }
+
+    @Override
+    public void release () {
+
+      card.release ();
+
+    }
+
+  }
+
+  /**
+   * The card of an evicted service, so a service held on to after its eviction
+   * is no longer scored, without holding on to any state of its engine.
+   *
+   * @author wlouth
+   * @since 1.0
+   */
+
+  static final class Detached
+    implements Card {
+
+    static final Card INSTANCE = new Detached ();
+
+    private Detached () {}
+
+    @Override
+    public Status score (
+      final Signal value
+    ) {
+
+      return
+        null;
+
+    }
+
+    @Override
+    public Status evaluate () {
+
+      return
+        null;
+
+    }
+
+    @Override
+    public Status status () {
+
+      return
+        NONE;
+
     }
 
   }
@@ -18,16 +18,30 @@ package io.opensignals.services.ext.spi.alpha;
 
 import io.opensignals.services.Services;
 import io.opensignals.services.Services.Orientation;
+import io.opensignals.services.Services.Phenomenon;
 import io.opensignals.services.Services.Signal;
 import io.opensignals.services.Services.Status;
-import io.opensignals.services.ext.spi.alpha.Sinks.Sink;
+import io.opensignals.services.ext.spi.alpha.Channels.Channel;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Card;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Detached;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.ScoringEngine;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
 import static io.opensignals.services.Services.Status.NONE;
 import static io.opensignals.services.ext.spi.alpha.Names.Name;
 
 /**
  * The SPI implementation of {@link Services.Service}.
  * <p>
+ * The pipeline a signal passes through, from the signal channels
+ * through to the scoring and the publishing of a status change,
+ * is flattened here into direct calls on fields assigned once
+ * at construction so that it can be inlined, other than the card
+ * of the service which is created on its first scored signal.
+ * <p>
  * Implementation Note:
  * Currently the scoring of a signal involves first mapping it to
  * a status and then scoring the status. We could in the future
@@ -39,23 +53,293 @@ import static io.opensignals.services.ext.spi.alpha.Names.Name;
  */
 
 final class Service
-  implements Services.Service {
+  implements Services.Service,
+             Subscribers.Slots {
+
+  private static final Object[] EMPTY = new Object[0];
+
+  // the published ordinal of an evicted service
+  private static final int DETACHED = -1;
+
+  private static final AtomicIntegerFieldUpdater< Service > PUBLISHED =
+    AtomicIntegerFieldUpdater.newUpdater (
+      Service.class,
+      "published"
+    );
+
+  private final    Contexts.Context      context;
+  private final    int                   id;
+  private final    Name                  name;
+  private final    Channel< Signal >     signals;
+  private final    Channel< Status >     statuses;
+  private final    Channel< Phenomenon > all;
+  private final    ScoringEngine         engine;
+  private volatile Card                  card;
+
+  // set on use and cleared by the sweep of an evicting context,
+  // with the field left plain as a stale read only delays either
+  private boolean touched = true;
 
-  private final Sink< ? super Signal > sink;
+  // the ordinal of the status last published, exchanged
+  // so each change is rolled up from the status it replaced,
+  // or DETACHED once the service is evicted
+  private volatile int published;
 
-  private final Name   name;
-  volatile      Status status = NONE;
+  // the bindings of the subscribers of the context to this
+  // service indexed by the (recycled) subscription id
+  private volatile Object[] slots = EMPTY;
 
   Service (
+    final Contexts.Context context,
+    final int id,
     final Name name,
-    final Sink< ? super Signal > sink
+    final Channel< Signal > signals,
+    final Channel< Status > statuses,
+    final Channel< Phenomenon > all,
+    final ScoringEngine engine
   ) {
 
+    this.context =
+      context;
+
+    this.id =
+      id;
+
     this.name =
       name;
 
-    this.sink =
-      sink;
+    this.signals =
+      signals;
+
+    this.statuses =
+      statuses;
+
+    this.all =
+      all;
+
+    this.engine =
+      engine;
+
+  }
+
+  /*
+   * Creates the card of the service on its first scored signal, so that a
+   * service only ever firing signals that are not scored holds no scoring
+   * state, with the lock only taken the once.
+   */
+
+  private synchronized Card card () {
+
+    Card card =
+      this.card;
+
+    if ( card == null ) {
+
+      card =
+        engine.card ();
+
+      card.bind (
+        this
+      );
+
+      this.card =
+        card;
+
+    }
+
+    return
+      card;
+
+  }
+
+  /*
+   * Returns true if the service was not used since the last sweep,
+   * clearing the use of the service otherwise.
+   */
+
+  boolean idle () {
+
+    if ( touched ) {
+
+      touched = false;
+
+      return
+        false;
+
+    }
+
+    return
+      true;
+
+  }
+
+  /*
+   * Detaches the evicted service from its card, returning the card, if any,
+   * for release once it is no longer in use by any signalling thread.
+   */
+
+  synchronized Card detach () {
+
+    final Card card =
+      this.card;
+
+    this.card =
+      Detached.INSTANCE;
+
+    return
+      card;
+
+  }
+
+  /*
+   * Retires the published status of the evicted service, returning
+   * the ordinal of the status to be removed from the roll-ups, with
+   * any later publishing of a change then ignored.
+   */
+
+  int retire () {
+
+    return
+      PUBLISHED.getAndSet (
+        this,
+        DETACHED
+      );
+
+  }
+
+  /*
+   * Returns the value within the slot, or null if not present.
+   */
+
+  @Override
+  public Object slot (
+    final int id
+  ) {
+
+    final Object[] array =
+      slots;
+
+    return
+      id < array.length
+      ? array[id]
+      : null;
+
+  }
+
+  /*
+   * Sets the slot to the value if it holds the expected value, with
+   * the context noting the service as holding a slot of the id so
+   * that only such services are cleared on the release of the id.
+   */
+
+  @Override
+  public boolean slot (
+    final int id,
+    final Object expected,
+    final Object value
+  ) {
+
+    if ( !exchange ( id, expected, value ) )
+      return false;
+
+    if ( value != null ) {
+
+      context.hold (
+        id,
+        this.id
+      );
+
+    }
+
+    return
+      true;
+
+  }
+
+  private synchronized boolean exchange (
+    final int id,
+    final Object expected,
+    final Object value
+  ) {
+
+    if ( slot ( id ) != expected )
+      return false;
+
+    slot (
+      id,
+      value
+    );
+
+    return
+      true;
+
+  }
+
+  /*
+   * Stores a value within the slot, growing the slots when needed,
+   * with the slots bound by the most subscriptions held at once by
+   * the context as the ids of cancelled subscriptions are reused.
+   */
+
+  @Override
+  public synchronized void slot (
+    final int id,
+    final Object value
+  ) {
+
+    Object[] array =
+      slots;
+
+    if ( id >= array.length ) {
+
+      if ( value == null )
+        return;
+
+      array =
+        Arrays.copyOf (
+          array,
+          Math.max (
+            id + 1,
+            array.length << 1
+          )
+        );
+
+      array[id] =
+        value;
+
+      slots =
+        array;
+
+    } else {
+
+      array[id] =
+        value;
+
+    }
+
+  }
+
+  /*
+   * Returns the dense id of the service within its context.
+   */
+
+  int id () {
+
+    return
+      id;
+
+  }
+
+  /*
+   * Returns true if the service belongs to the context.
+   */
+
+  boolean within (
+    final Contexts.Context context
+  ) {
+
+    return
+      this.context == context;
 
   }
 
@@ -70,8 +354,31 @@ final class Service
   @Override
   public Status getStatus () {
 
+    if ( !touched )
+      touched = true;
+
+    final Card card =
+      this.card;
+
+    if ( card == null )
+      return NONE;
+
+    // the decay of the scores is only applied
+    // when the service is signalled or read
+
+    final Status change =
+      card.evaluate ();
+
+    if ( change != null ) {
+
+      publish (
+        change
+      );
+
+    }
+
     return
-      status;
+      card.status ();
 
   }
 
@@ -81,12 +388,100 @@ final class Service
     final Signal signal
   ) {
 
-    sink.accept (
+    if ( !touched )
+      touched = true;
+
+    signals.accept (
+      name,
+      orientation,
+      signal
+    );
+
+    all.accept (
       name,
       orientation,
       signal
     );
 
+    Card card =
+      this.card;
+
+    if ( card == null ) {
+
+      if ( !engine.accepts ( signal ) )
+        return;
+
+      card =
+        card ();
+
+    }
+
+    final Status change =
+      card.score (
+        signal
+      );
+
+    if ( change != null ) {
+
+      publish (
+        change
+      );
+
+    }
+
+  }
+
+  /*
+   * Publishes a change of status, possibly from the evaluator
+   * thread when the scoring of the service is deferred, with the
+   * change ignored once the service is evicted, as the service has
+   * then been removed from the roll-ups, and so that a change racing
+   * the eviction cannot leave the service counted.
+   */
+
+  void publish (
+    final Status change
+  ) {
+
+    final int next =
+      change.ordinal ();
+
+    int prev;
+
+    do {
+
+      prev =
+        published;
+
+      if ( prev == DETACHED )
+        return;
+
+    } while (
+      !PUBLISHED.compareAndSet (
+        this,
+        prev,
+        next
+      )
+    );
+
+    statuses.accept (
+      name,
+      EMIT,
+      change
+    );
+
+    all.accept (
+      name,
+      EMIT,
+      change
+    );
+
+    context.rollup (
+      name,
+      prev,
+      next
+    );
+
   }
 
-}
\ No newline at end of file
+}
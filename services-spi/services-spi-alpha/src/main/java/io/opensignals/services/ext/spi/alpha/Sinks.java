@@ -26,8 +26,43 @@ import io.opensignals.services.Services.Phenomenon;
 
 final class Sinks {
 
+  // the mask accepting all values
+  static final int ALL = -1;
+
   private Sinks () {}
 
+  /*
+   * Compiles a set of values into a bitmask indexed by ordinal.
+   */
+
+  static int mask (
+    final Iterable< ? extends Phenomenon > values
+  ) {
+
+    int mask = 0;
+
+    for ( final Phenomenon value : values ) {
+
+      mask |=
+        1 << value.ordinal ();
+
+    }
+
+    return
+      mask;
+
+  }
+
+  static boolean accepts (
+    final int mask,
+    final Phenomenon value
+  ) {
+
+    return
+      ( mask & 1 << value.ordinal () ) != 0;
+
+  }
+
   @FunctionalInterface
   interface Sink< T extends Phenomenon > {
 
@@ -45,6 +80,46 @@ final class Sinks {
       T value
     );
 
+    /**
+     * Accepts a batch of changes, signals or statuses, held within parallel arrays.
+     *
+     * @param count        the number of changes in the batch
+     * @param names        the names of the services
+     * @param orientations the orientations of the changes
+     * @param values       the phenomenon values
+     */
+
+    default void accept (
+      final int count,
+      final Names.Name[] names,
+      final Orientation[] orientations,
+      final T[] values
+    ) {
+
+      for (
+        int i = 0;
+        i < count;
+        i++
+      ) {
+
+        accept (
+          names[i],
+          orientations[i],
+          values[i]
+        );
+
+      }
+
+    }
+
+    /**
+     * Called when the sink is no longer to be passed changes, such as on its subscription being cancelled.
+     */
+
+    default void close () {
+      // by default there is nothing to release
+    }
+
     /**
      * Creates a new sink that first calls this sink and then another.
      *
@@ -89,7 +164,7 @@ final class Sinks {
         value
       ) -> {
 
-        if ( ( mask & 1 << value.ordinal () ) != 0 )
+        if ( accepts ( mask, value ) )
           sink.accept ( name, orientation, value );
 
       };
@@ -38,7 +38,37 @@ final class Strings {
   static final String ENVIRONMENT = "environment";
   static final String ID          = "id";
   static final String DECAY       = "decay";
+  static final String HALFLIFE    = "halflife";
   static final String SIGNAL      = "signal";
+  static final String CHANNEL     = "channel";
+  static final String TYPE        = "type";
+  static final String CAPACITY    = "capacity";
+  static final String THREADS     = "threads";
+  static final String POLICY      = "policy";
+  static final String SAMPLE      = "sample";
+  static final String CONFLATE    = "conflate";
+  static final String ENGINE      = "engine";
+  static final String EWMA        = "ewma";
+  static final String ALPHA       = "alpha";
+  static final String THRESHOLD   = "threshold";
+  static final String WINDOW      = "window";
+  static final String SPAN        = "span";
+  static final String BUCKETS     = "buckets";
+  static final String BUCKET      = "bucket";
+  static final String RATE        = "rate";
+  static final String DEVIATION   = "deviation";
+  static final String SIGMA       = "sigma";
+  static final String WARMUP      = "warmup";
+  static final String DEFERRED    = "deferred";
+  static final String CADENCE     = "cadence";
+  static final String EVICTION    = "eviction";
+  static final String IDLE        = "idle";
+  static final String CARDINALITY = "cardinality";
+  static final String LIMIT       = "limit";
+  static final String PREFIX      = "prefix";
+  static final String OVERFLOW    = "__overflow__";
+  static final String ROLLUP      = "rollup";
+  static final String EMIT        = "emit";
 
   private Strings () {}
 
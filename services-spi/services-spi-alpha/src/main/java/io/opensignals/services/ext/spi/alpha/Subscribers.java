@@ -17,12 +17,15 @@
 package io.opensignals.services.ext.spi.alpha;
 
 import io.opensignals.services.Services;
+import io.opensignals.services.Services.BatchSubscriber;
 import io.opensignals.services.Services.Callback;
 import io.opensignals.services.Services.Name;
 import io.opensignals.services.Services.Orientation;
 import io.opensignals.services.Services.Phenomenon;
 
+import java.lang.reflect.Array;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static java.util.Objects.requireNonNull;
 
@@ -36,34 +39,149 @@ final class Subscribers {
   private Subscribers () {}
 
   static < T extends Phenomenon > Sinks.Sink< T > sink (
-    final Services.Subscriber< ? super T > subscriber
+    final Services.Subscriber< ? super T > subscriber,
+    final Scope scope
   ) {
 
     return
       new Subscriber<> (
-        subscriber
+        subscriber,
+        scope
       );
 
   }
 
+  static < T extends Phenomenon > Sinks.Sink< T > sink (
+    final BatchSubscriber< ? super T > subscriber,
+    final Class< T > type
+  ) {
+
+    return
+      new Batch<> (
+        subscriber,
+        type
+      );
+
+  }
+
+  /*
+   * The scope, such as a context, within which subscriptions are
+   * given an id, recycled once cancelled, indexing the slots of
+   * those named services that can cache a binding of a subscriber.
+   */
+
+  interface Scope {
+
+    // a scope without slots with every binding held by a subscriber
+    Scope NONE = new Scope () {
+
+      @Override
+      public int acquire () {
+
+        return
+          -1;
+
+      }
+
+      @Override
+      public void release (
+        final int id
+      ) {
+        // no slots to clear
+      }
+
+      @Override
+      public Slots slots (
+        final Names.Name name
+      ) {
+
+        return
+          null;
+
+      }
+
+    };
+
+    /**
+     * Returns the lowest id not held by an active subscription.
+     *
+     * @return The id, or -1 if the scope has no slots.
+     */
+
+    int acquire ();
+
+    /**
+     * Releases the id of a cancelled subscription, clearing its slot across the scope.
+     *
+     * @param id the id of the subscription
+     */
+
+    void release ( int id );
+
+    /**
+     * Returns the slots of the name within the scope.
+     *
+     * @param name the name of a service
+     * @return The slots, or null if the name has none within the scope.
+     */
+
+    Slots slots ( Names.Name name );
+
+  }
+
+  /*
+   * The slots of a service, indexed by subscription id, with a
+   * slot only read without a lock and written, or compared and
+   * set, under the lock of the slots.
+   */
+
+  interface Slots {
+
+    Object slot ( int id );
+
+    void slot ( int id, Object value );
+
+    boolean slot ( int id, Object expected, Object value );
+
+  }
+
+  /*
+   * Resolves the callback for a name firstly via the slot of
+   * the named service within the scope, indexed by the id of the
+   * subscription, avoiding any hashing, with the callback map only
+   * holding the bindings of names without slots, such as those of
+   * a standalone channel. A pending binding is set within the slot
+   * before the subscriber is called, outside of any lock, so that
+   * the subscriber is only called once per name.
+   */
+
   private static final class Subscriber< T extends Phenomenon >
     implements Sinks.Sink< T > {
 
     private static final Callback< ? > IGNORE =
       ( orientation, value ) -> { /* do nothing with the update */ };
 
-    private final ConcurrentHashMap< Name, Callback< ? super T > > callbacks =
+    private final ConcurrentHashMap< Name, Binding< T > > bindings =
       new ConcurrentHashMap<> ();
 
     private final Services.Subscriber< ? super T > subscriber;
+    private final Scope                            scope;
+    private final int                              id;
 
     Subscriber (
-      final Services.Subscriber< ? super T > subscriber
+      final Services.Subscriber< ? super T > subscriber,
+      final Scope scope
     ) {
 
       this.subscriber =
         subscriber;
 
+      this.scope =
+        scope;
+
+      id =
+        scope.acquire ();
+
     }
 
     public void accept (
@@ -73,9 +191,9 @@ final class Subscribers {
     ) {
 
       final Callback< ? super T > callback =
-        callbackOf (
+        bindingOf (
           name
-        );
+        ).callback ();
 
       if ( callback != IGNORE ) {
 
@@ -88,9 +206,36 @@ final class Subscribers {
 
     }
 
+    @Override
+    public void close () {
+
+      if ( id >= 0 ) {
+
+        scope.release (
+          id
+        );
+
+      }
+
+    }
+
+
+    private Binding< T > newBinding (
+      final Name name
+    ) {
+
+      return
+        new Binding<> (
+          this,
+          resolve (
+            name
+          )
+        );
+
+    }
 
     @SuppressWarnings ( "unchecked" )
-    private Callback< ? super T > newCallback (
+    private Callback< ? super T > resolve (
       final Name name
     ) {
 
@@ -114,32 +259,129 @@ final class Subscribers {
     }
 
 
-    private Callback< ? super T > callbackOf (
-      final Name name
+    @SuppressWarnings ( "unchecked" )
+    private Binding< T > bindingOf (
+      final Names.Name name
     ) {
 
-      final Callback< ? super T > callback =
-        callbacks.get (
-          name
+      final Slots slots =
+        id >= 0
+        ? scope.slots ( name )
+        : null;
+
+      if ( slots == null ) {
+
+        final Binding< T > binding =
+          bindings.get (
+            name
+          );
+
+        return
+          binding != null
+          ? binding
+          : bindings.computeIfAbsent ( name, this::newBinding );
+
+      }
+
+      // a slot can hold the binding of a cancelled subscription
+      // that had the same (recycled) id when it was still being
+      // dispatched to as its slots were cleared
+
+      final Binding< T > binding =
+        (Binding< T >) slots.slot (
+          id
         );
 
       return
-        callback != null ?
-        callback :
-        createIfAbsent ( name );
+        binding != null && binding.owner == this
+        ? binding
+        : bind ( slots, name );
 
     }
 
-    private Callback< ? super T > createIfAbsent (
-      final Name name
+    /*
+     * Sets a pending binding within the slot, with a CAS, and then resolves
+     * the callback outside of the lock of the slots, as the subscriber can
+     * look up, or signal, other services and so take their locks, with any
+     * racing thread finding the pending binding awaiting its resolution.
+     */
+
+    @SuppressWarnings ( "unchecked" )
+    private Binding< T > bind (
+      final Slots slots,
+      final Names.Name name
     ) {
 
-      return
-        callbacks.computeIfAbsent (
-          name,
-          this::newCallback
+      final Binding< T > pending =
+        new Binding<> (
+          this
         );
 
+      for ( ; ; ) {
+
+        final Binding< T > binding =
+          (Binding< T >) slots.slot (
+            id
+          );
+
+        if ( binding != null && binding.owner == this )
+          return binding;
+
+        if ( slots.slot ( id, binding, pending ) )
+          break;
+
+      }
+
+      // a name that only since gained slots, with the service
+      // previously claiming it discarded, keeps its binding
+
+      final Binding< T > previous =
+        bindings.remove (
+          name
+        );
+
+      if ( previous != null ) {
+
+        pending.resolve (
+          previous.callback ()
+        );
+
+        return
+          pending;
+
+      }
+
+      try {
+
+        pending.resolve (
+          resolve (
+            name
+          )
+        );
+
+      } finally {
+
+        // a subscriber failing is called again on the next change
+
+        if ( pending.resolver != null ) {
+
+          slots.slot (
+            id,
+            pending,
+            null
+          );
+
+          pending.resolve (
+            IGNORE
+          );
+
+        }
+
+      }
+
+      return
+        pending;
+
     }
 
     private static final class Closure< T extends Phenomenon > {
@@ -159,4 +401,209 @@ final class Subscribers {
 
   }
 
+  /*
+   * The callback of a subscriber for a name, pending until resolved by
+   * the thread calling the subscriber, with a change dispatched to the
+   * name by that same thread, while still within the subscriber, ignored.
+   */
+
+  private static final class Binding< T extends Phenomenon > {
+
+    private final    Object                owner;
+    private volatile Thread                resolver;
+    private volatile Callback< ? super T > callback;
+
+    Binding (
+      final Object owner,
+      final Callback< ? super T > callback
+    ) {
+
+      this.owner =
+        owner;
+
+      this.callback =
+        callback;
+
+    }
+
+    Binding (
+      final Object owner
+    ) {
+
+      this.owner =
+        owner;
+
+      resolver =
+        Thread.currentThread ();
+
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    void resolve (
+      final Callback< ? > callback
+    ) {
+
+      this.callback =
+        (Callback< ? super T >) callback;
+
+      resolver =
+        null;
+
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    Callback< ? super T > callback () {
+
+      Callback< ? super T > callback =
+        this.callback;
+
+      if ( callback != null )
+        return callback;
+
+      if ( resolver == Thread.currentThread () )
+        return (Callback< ? super T >) Subscriber.IGNORE;
+
+      while ( ( callback = this.callback ) == null )
+        //noinspection CallToThreadYield
+        Thread.yield ();
+
+      return
+        callback;
+
+    }
+
+  }
+
+  /*
+   * Adapts a batch subscriber to a sink with each individual
+   * change being dispatched as a batch of one, within a buffer
+   * reused across changes so that the dispatching of a change
+   * does not allocate.
+   */
+
+  private static final class Batch< T extends Phenomenon >
+    implements Sinks.Sink< T > {
+
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicReferenceFieldUpdater< Batch, Buffer > SPARE =
+      AtomicReferenceFieldUpdater.newUpdater (
+        Batch.class,
+        Buffer.class,
+        "spare"
+      );
+
+    private final    BatchSubscriber< ? super T > subscriber;
+    private final    Class< T >                   type;
+    private volatile Buffer< T >                  spare;
+
+    Batch (
+      final BatchSubscriber< ? super T > subscriber,
+      final Class< T > type
+    ) {
+
+      this.subscriber =
+        subscriber;
+
+      this.type =
+        type;
+
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      // the buffer is taken so that a change dispatched concurrently,
+      // or from within the subscriber, is passed a buffer of its own
+
+      Buffer< T > buffer =
+        SPARE.getAndSet (
+          this,
+          null
+        );
+
+      if ( buffer == null ) {
+
+        buffer =
+          new Buffer<> (
+            type
+          );
+
+      }
+
+      buffer.names[0] =
+        name;
+
+      buffer.orientations[0] =
+        orientation;
+
+      buffer.values[0] =
+        value;
+
+      subscriber.accept (
+        1,
+        buffer.names,
+        buffer.orientations,
+        buffer.values
+      );
+
+      spare =
+        buffer;
+
+    }
+
+    @Override
+    public void accept (
+      final int count,
+      final Names.Name[] names,
+      final Orientation[] orientations,
+      final T[] values
+    ) {
+
+      subscriber.accept (
+        count,
+        names,
+        orientations,
+        values
+      );
+
+    }
+
+  }
+
+  /*
+   * The arrays of a batch of one.
+   */
+
+  private static final class Buffer< T extends Phenomenon > {
+
+    final Names.Name[]  names;
+    final Orientation[] orientations;
+    final T[]           values;
+
+    @SuppressWarnings ( "unchecked" )
+    Buffer (
+      final Class< T > type
+    ) {
+
+      names =
+        new Names.Name[1];
+
+      orientations =
+        new Orientation[1];
+
+      values =
+        (T[]) Array.newInstance (
+          type,
+          1
+        );
+
+    }
+
+  }
+
 }
@@ -21,6 +21,9 @@ import io.opensignals.services.Services.Orientation;
 import io.opensignals.services.Services.Phenomenon;
 import io.opensignals.services.ext.spi.alpha.Sinks.Sink;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * @author wlouth
  * @since 1.0
@@ -30,58 +33,361 @@ final class Subscriptions {
 
   private Subscriptions () {}
 
-  static < T extends Phenomenon > Subscription< T > create (
-    final Sink< ? super T > sink,
-    final Subscription< T > next
-  ) {
+  static < T extends Phenomenon > Registry< T > registry () {
 
     return
-      new Subscription<> (
-        sink,
-        next
+      new Registry<> (
+        null
       );
 
   }
 
-  static < T extends Phenomenon > Subscription< T > scan (
-    final Subscription< T > initial
+  /*
+   * Creates a registry that runs the action each time
+   * its last subscription is removed.
+   */
+
+  static < T extends Phenomenon > Registry< T > registry (
+    final Runnable vacated
   ) {
 
-    Subscription< T > next =
-      initial;
+    return
+      new Registry<> (
+        vacated
+      );
+
+  }
+
+  /**
+   * A registry of subscriptions held within an immutable snapshot that is swapped on each
+   * subscribe and cancel, with cancelled subscriptions removed immediately, so that
+   * the dispatching of events is a tight indexed loop over an array.
+   * <p>
+   * The snapshot also holds the union of the masks of its subscriptions allowing
+   * a value that is of no interest to any subscription to be discarded upfront.
+   *
+   * @param <T> The type of {@link Phenomenon}
+   */
+
+  static final class Registry< T extends Phenomenon >
+    implements Sink< T > {
+
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicReferenceFieldUpdater< Registry, Snapshot > UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater (
+        Registry.class,
+        Snapshot.class,
+        "snapshot"
+      );
 
-    while (
-      next != null &&
-        next.sink == null
+    private final    Runnable      vacated;
+    private volatile Snapshot< T > snapshot = Snapshot.empty ();
+
+    Registry (
+      final Runnable vacated
     ) {
 
-      next =
-        next.next;
+      this.vacated =
+        vacated;
 
     }
 
-    return
-      next;
+    @Override
+    public void accept (
+      final Names.Name name,
+      final Orientation orientation,
+      final T value
+    ) {
+
+      final Snapshot< T > snapshot =
+        this.snapshot;
+
+      if ( Sinks.accepts ( snapshot.mask, value ) ) {
+
+        for (
+          final Subscription< T > subscription
+          : snapshot.subscriptions
+        ) {
+
+          if ( Sinks.accepts ( subscription.mask, value ) ) {
+
+            subscription.accept (
+              name,
+              orientation,
+              value
+            );
+
+          }
+
+        }
+
+      }
+
+    }
+
+    @Override
+    public void accept (
+      final int count,
+      final Names.Name[] names,
+      final Orientation[] orientations,
+      final T[] values
+    ) {
+
+      for (
+        final Subscription< T > subscription
+        : snapshot.subscriptions
+      ) {
+
+        subscription.accept (
+          count,
+          names,
+          orientations,
+          values
+        );
+
+      }
+
+    }
+
+    boolean isEmpty () {
+
+      return
+        snapshot.subscriptions.length == 0;
+
+    }
+
+    /*
+     * Returns true if any subscription is interested in the value.
+     */
+
+    boolean accepts (
+      final T value
+    ) {
+
+      return
+        Sinks.accepts (
+          snapshot.mask,
+          value
+        );
+
+    }
+
+    Subscription< T > add (
+      final Sink< ? super T > sink
+    ) {
+
+      return
+        add (
+          sink,
+          Sinks.ALL
+        );
+
+    }
+
+    Subscription< T > add (
+      final Sink< ? super T > sink,
+      final int mask
+    ) {
+
+      final Subscription< T > subscription =
+        new Subscription<> (
+          sink,
+          mask,
+          this
+        );
+
+      Snapshot< T > current;
+      Subscription< T >[] next;
+
+      do {
+
+        current =
+          snapshot;
+
+        final Subscription< T >[] array =
+          current.subscriptions;
+
+        next =
+          Arrays.copyOf (
+            array,
+            array.length + 1
+          );
+
+        next[array.length] =
+          subscription;
+
+      } while (
+        !UPDATER.compareAndSet (
+          this,
+          current,
+          new Snapshot<> ( next )
+        )
+      );
+
+      return
+        subscription;
+
+    }
+
+    void remove (
+      final Subscription< T > subscription
+    ) {
+
+      Snapshot< T > current;
+      Snapshot< T > next;
+
+      do {
+
+        current =
+          snapshot;
+
+        final Subscription< T >[] array =
+          current.subscriptions;
+
+        final int index =
+          indexOf (
+            array,
+            subscription
+          );
+
+        if ( index < 0 )
+          return;
+
+        if ( array.length == 1 ) {
+
+          next =
+            Snapshot.empty ();
+
+        } else {
+
+          final Subscription< T >[] copy =
+            Arrays.copyOf (
+              array,
+              array.length - 1
+            );
+
+          // shift the tail down over the removed slot
+
+          System.arraycopy (
+            array,
+            index + 1,
+            copy,
+            index,
+            array.length - index - 1
+          );
+
+          next =
+            new Snapshot<> (
+              copy
+            );
+
+        }
+
+      } while (
+        !UPDATER.compareAndSet (
+          this,
+          current,
+          next
+        )
+      );
+
+      if ( vacated != null && next.subscriptions.length == 0 )
+        vacated.run ();
+
+    }
+
+    private static int indexOf (
+      final Subscription< ? >[] array,
+      final Subscription< ? > subscription
+    ) {
+
+      for ( int i = 0; i < array.length; i++ ) {
+
+        if ( array[i] == subscription )
+          return i;
+
+      }
+
+      return
+        -1;
+
+    }
+
+  }
+
+  private static final class Snapshot< T extends Phenomenon > {
+
+    // shared by every registry without subscriptions
+    // as a snapshot without elements holds no values
+    @SuppressWarnings ( "unchecked" )
+    private static final Snapshot< Phenomenon > EMPTY =
+      new Snapshot<> (
+        (Subscription< Phenomenon >[]) new Subscription< ? >[0]
+      );
+
+    final Subscription< T >[] subscriptions;
+    final int                 mask;
+
+    Snapshot (
+      final Subscription< T >[] subscriptions
+    ) {
+
+      int mask = 0;
+
+      for ( final Subscription< T > subscription : subscriptions ) {
+
+        mask |=
+          subscription.mask;
+
+      }
+
+      this.subscriptions =
+        subscriptions;
+
+      this.mask =
+        mask;
+
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    static < T extends Phenomenon > Snapshot< T > empty () {
+
+      return
+        (Snapshot< T >) (Snapshot< ? >) EMPTY;
+
+    }
 
   }
 
   static final class Subscription< T extends Phenomenon >
     implements Sink< T >, Services.Subscription {
 
-    volatile Sink< ? super T > sink;
+    @SuppressWarnings ( {"rawtypes", "java:S3740"} )
+    private static final AtomicReferenceFieldUpdater< Subscription, Sink > SINK =
+      AtomicReferenceFieldUpdater.newUpdater (
+        Subscription.class,
+        Sink.class,
+        "sink"
+      );
 
-    Subscription< T > next;
+    private final    Registry< T >      registry;
+    private volatile Sink< ? super T > sink;
+    final            int                mask;
 
     Subscription (
       final Sink< ? super T > sink,
-      final Subscription< T > next
+      final int mask,
+      final Registry< T > registry
     ) {
 
       this.sink =
         sink;
 
-      this.next =
-        next;
+      this.mask =
+        mask;
+
+      this.registry =
+        registry;
 
     }
 
@@ -109,8 +415,9 @@ final class Subscriptions {
           final Throwable error
         ) {
 
-          this.sink =
-            null;
+          close (
+            sink
+          );
 
         }
 
@@ -120,14 +427,69 @@ final class Subscriptions {
 
 
     @Override
-    public void cancel () {
+    public void accept (
+      final int count,
+      final Names.Name[] names,
+      final Orientation[] orientations,
+      final T[] values
+    ) {
+
+      if ( mask != Sinks.ALL ) {
+
+        // a filtered subscription is only
+        // ever passed individual changes
+
+        for ( int i = 0; i < count; i++ ) {
+
+          if ( Sinks.accepts ( mask, values[i] ) ) {
+
+            accept (
+              names[i],
+              orientations[i],
+              values[i]
+            );
+
+          }
+
+        }
+
+        return;
+
+      }
+
+      final Sink< ? super T > sink =
+        this.sink;
 
       if ( sink != null ) {
 
-        sink =
-          null;
+        try {
+
+          sink.accept (
+            count,
+            names,
+            orientations,
+            values
+          );
+
+        } catch (
+          final Throwable error
+        ) {
+
+          close (
+            sink
+          );
+
+        }
+
+      }
+
+    }
 
-      } else {
+
+    @Override
+    public void cancel () {
+
+      if ( !close ( sink ) ) {
 
         throw
           new IllegalStateException ();
@@ -136,6 +498,32 @@ final class Subscriptions {
 
     }
 
+    // only the one thread clearing the sink gets
+    // to close (release) it and remove it from
+    // the registry
+
+    private boolean close (
+      final Sink< ? super T > sink
+    ) {
+
+      if ( sink != null && SINK.compareAndSet ( this, sink, null ) ) {
+
+        registry.remove (
+          this
+        );
+
+        sink.close ();
+
+        return
+          true;
+
+      }
+
+      return
+        false;
+
+    }
+
   }
 
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Status;
+import io.opensignals.services.ext.spi.alpha.Channels.Channel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
+import static io.opensignals.services.Services.Status.*;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ConflatedChannelTest {
+
+  @Test
+  void dispatch_latest ()
+  throws InterruptedException {
+
+    final Channel< Status > channel =
+      Channels.conflated (
+        Status.class
+      );
+
+    final CountDownLatch entered =
+      new CountDownLatch (
+        1
+      );
+
+    final CountDownLatch blocked =
+      new CountDownLatch (
+        1
+      );
+
+    final CountDownLatch delivered =
+      new CountDownLatch (
+        3
+      );
+
+    final List< String > changes =
+      new CopyOnWriteArrayList<> ();
+
+    channel.subscribe (
+      ( name, registrar ) ->
+        registrar.accept (
+          ( orientation, status ) -> {
+
+            changes.add (
+              name.toString () + '=' + status
+            );
+
+            entered.countDown ();
+
+            try {
+
+              blocked.await ();
+
+            } catch (
+              final InterruptedException error
+            ) {
+
+              Thread.currentThread ().interrupt ();
+
+            }
+
+            delivered.countDown ();
+
+          }
+        )
+    );
+
+    final Names.Name a =
+      Names.of (
+        getClass ()
+      ).name (
+        "a"
+      );
+
+    final Names.Name b =
+      Names.of (
+        getClass ()
+      ).name (
+        "b"
+      );
+
+    channel.accept (
+      a,
+      EMIT,
+      DEGRADED
+    );
+
+    assertTrue (
+      entered.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    // with the subscriber now busy the
+    // intermediate changes of a coalesce
+
+    channel.accept ( a, EMIT, OK );
+    channel.accept ( a, EMIT, DEFECTIVE );
+    channel.accept ( b, EMIT, OK );
+    channel.accept ( a, EMIT, DOWN );
+
+    blocked.countDown ();
+
+    assertTrue (
+      delivered.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertEquals (
+      asList (
+        a + "=DEGRADED",
+        a + "=DOWN",
+        b + "=OK"
+      ),
+      changes
+    );
+
+  }
+
+  @Test
+  void dispatch_bounded ()
+  throws InterruptedException {
+
+    // at most two services pending
+    // with the newest change dropped
+
+    final Channel< Status > channel =
+      Channels.conflated (
+        Status.class,
+        2,
+        1,
+        Channels.Policy.DROP_NEWEST,
+        1
+      );
+
+    final CountDownLatch entered =
+      new CountDownLatch (
+        1
+      );
+
+    final CountDownLatch blocked =
+      new CountDownLatch (
+        1
+      );
+
+    final CountDownLatch delivered =
+      new CountDownLatch (
+        3
+      );
+
+    final List< String > changes =
+      new CopyOnWriteArrayList<> ();
+
+    channel.subscribe (
+      ( name, registrar ) ->
+        registrar.accept (
+          ( orientation, status ) -> {
+
+            changes.add (
+              name.getValue () + '=' + status
+            );
+
+            entered.countDown ();
+
+            try {
+
+              blocked.await ();
+
+            } catch (
+              final InterruptedException error
+            ) {
+
+              Thread.currentThread ().interrupt ();
+
+            }
+
+            delivered.countDown ();
+
+          }
+        )
+    );
+
+    final Names.Name prefix =
+      Names.of (
+        getClass ()
+      ).name (
+        "bounded"
+      );
+
+    channel.accept ( prefix.name ( "a" ), EMIT, DEGRADED );
+
+    assertTrue (
+      entered.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    // the change of a pending service is still
+    // coalesced with the capacity taken up
+
+    channel.accept ( prefix.name ( "b" ), EMIT, OK );
+    channel.accept ( prefix.name ( "c" ), EMIT, OK );
+    channel.accept ( prefix.name ( "d" ), EMIT, OK );
+    channel.accept ( prefix.name ( "b" ), EMIT, DOWN );
+
+    assertEquals (
+      1L,
+      channel.overflows ()
+    );
+
+    blocked.countDown ();
+
+    assertTrue (
+      delivered.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertEquals (
+      asList (
+        "a=DEGRADED",
+        "b=DOWN",
+        "c=OK"
+      ),
+      changes
+    );
+
+  }
+
+}
@@ -0,0 +1,783 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.opensignals.services.Services.Signal.FAIL;
+import static io.opensignals.services.Services.Signal.START;
+import static io.opensignals.services.Services.Status.NONE;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ContextTest {
+
+  // spans several chunks of the directory
+  private static final int COUNT = 1000;
+
+  // the idle period, in milliseconds, of an evicting context,
+  // an hour so that no sweep is due within a test
+  private static final int IDLE = 3_600_000;
+
+  @Test
+  void ids_dense () {
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    for ( int i = 0; i < COUNT; i++ ) {
+
+      final Service service =
+        (Service) context.service (
+          Names.of ( "service" + i )
+        );
+
+      assertEquals (
+        i,
+        service.id ()
+      );
+
+      assertSame (
+        service,
+        context.service (
+          i
+        )
+      );
+
+    }
+
+    // looking up an existing service does not allot an id
+
+    context.service (
+      "service0"
+    ).emit (
+      FAIL
+    );
+
+    final List< Service > services =
+      new ArrayList<> ();
+
+    context.forEach (
+      services::add
+    );
+
+    assertEquals (
+      COUNT,
+      services.size ()
+    );
+
+    for ( int i = 0; i < COUNT; i++ ) {
+
+      assertEquals (
+        i,
+        services.get ( i ).id ()
+      );
+
+    }
+
+    assertEquals (
+      services,
+      context.services ().collect ( toList () )
+    );
+
+  }
+
+  @Test
+  void services_evict () {
+
+    // the collections are driven directly
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path ->
+          Strings.IDLE.equals ( path.getValue () )
+          ? Optional.of ( IDLE )
+          : Optional.empty ()
+      );
+
+    final Services.Service active =
+      context.service (
+        "evict.active"
+      );
+
+    final Services.Service idle =
+      context.service (
+        "evict.idle"
+      );
+
+    idle.emit (
+      FAIL
+    );
+
+    // the first sweep only clears the use of each service,
+    // as a sweep due on creating a service follows its creation
+
+    context.service (
+      "evict.first"
+    );
+
+    context.collect ();
+
+    assertEquals (
+      0L,
+      context.evictions ()
+    );
+
+    active.emit (
+      FAIL
+    );
+
+    context.collect ();
+
+    // the idle service along with the service
+    // created, and left unused, on the first sweep
+
+    assertEquals (
+      2L,
+      context.evictions ()
+    );
+
+    assertSame (
+      active,
+      context.service (
+        "evict.active"
+      )
+    );
+
+    // an evicted service is created afresh with
+    // the handle of the evicted service detached
+
+    final Services.Service created =
+      context.service (
+        "evict.idle"
+      );
+
+    assertNotSame (
+      idle,
+      created
+    );
+
+    assertEquals (
+      NONE,
+      created.getStatus ()
+    );
+
+    idle.emit (
+      FAIL
+    );
+
+    assertEquals (
+      NONE,
+      idle.getStatus ()
+    );
+
+    assertEquals (
+      NONE,
+      created.getStatus ()
+    );
+
+  }
+
+  @Test
+  void services_overflow () {
+
+    // at most three services with
+    // at most two under any prefix
+
+    final Services.Context context =
+      new Contexts.Context (
+        path -> {
+
+          final String value =
+            path.getValue ();
+
+          return
+            Strings.LIMIT.equals ( value )
+            ? Optional.of ( 3 )
+            : Strings.PREFIX.equals ( value )
+              ? Optional.of ( 2 )
+              : Optional.empty ();
+
+        }
+      );
+
+    context.service ( "tenant.one" );
+    context.service ( "tenant.two" );
+
+    final Services.Service overflow =
+      context.service (
+        "tenant.three"
+      );
+
+    assertEquals (
+      "tenant.__overflow__",
+      overflow.getName ().toString ()
+    );
+
+    assertSame (
+      overflow,
+      context.service (
+        "tenant.four"
+      )
+    );
+
+    // a rejected name stays routed to the overflow
+
+    assertSame (
+      overflow,
+      context.service (
+        "tenant.three"
+      )
+    );
+
+    // beyond the limit of the context a name is routed
+    // to the overflow of its own prefix
+
+    context.service ( "other.one" );
+
+    assertEquals (
+      "other.__overflow__",
+      context.service ( "other.two" ).getName ().toString ()
+    );
+
+    assertEquals (
+      4L,
+      context.rejections ()
+    );
+
+    // the overflow services are not counted against the limits
+
+    assertEquals (
+      5L,
+      context.services ().count ()
+    );
+
+  }
+
+  @Test
+  void service_claims () {
+
+    final Names.Name name =
+      Names.of (
+        "service.claims"
+      );
+
+    final Contexts.Context first =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    final Contexts.Context second =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    final Services.Service service =
+      first.service (
+        name
+      );
+
+    // the name is claimed by the first context
+    // with the second falling back to its map
+
+    assertSame (
+      service,
+      name.service ()
+    );
+
+    final Services.Service other =
+      second.service (
+        name
+      );
+
+    assertNotSame (
+      service,
+      other
+    );
+
+    assertSame (
+      other,
+      second.service (
+        name
+      )
+    );
+
+    assertSame (
+      service,
+      first.service (
+        name
+      )
+    );
+
+  }
+
+
+  @Test
+  void slots_cleared () {
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    final Service service =
+      (Service) context.service (
+        Names.of (
+          "slots.cleared"
+        )
+      );
+
+    final AtomicInteger resolved =
+      new AtomicInteger ();
+
+    final Services.Subscription subscription =
+      context.subscribe (
+        ( name, registrar ) -> {
+
+          resolved.incrementAndGet ();
+
+          registrar.accept (
+            ( orientation, signal ) -> { }
+          );
+
+        },
+        Services.Signal.class
+      );
+
+    service.emit ( FAIL );
+    service.emit ( FAIL );
+
+    // the binding is held by the service in the
+    // slot of the first id of the context
+
+    assertEquals (
+      1,
+      resolved.get ()
+    );
+
+    assertNotNull (
+      service.slot (
+        0
+      )
+    );
+
+    subscription.cancel ();
+
+    assertNull (
+      service.slot (
+        0
+      )
+    );
+
+  }
+
+  @Test
+  void services_overflows ()
+  throws InterruptedException {
+
+    // each subscriber with a mailbox of two changes
+    // sampled once the mailbox is over half full
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path -> {
+
+          final String value =
+            path.getValue ();
+
+          return
+            Strings.TYPE.equals ( value )
+            ? Optional.of ( Channels.Type.MAILBOX )
+            : Strings.CAPACITY.equals ( value )
+              ? Optional.of ( 2 )
+              : Strings.POLICY.equals ( value )
+                ? Optional.of ( Channels.Policy.SAMPLE )
+                : Optional.empty ();
+
+        }
+      );
+
+    final CountDownLatch blocked =
+      new CountDownLatch (
+        1
+      );
+
+    final Services.Subscription subscription =
+      context.subscribe (
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, signal ) -> {
+
+              try {
+
+                blocked.await ();
+
+              } catch (
+                final InterruptedException error
+              ) {
+
+                Thread.currentThread ().interrupt ();
+
+              }
+
+            }
+          ),
+        Services.Signal.class
+      );
+
+    final Services.Service service =
+      context.service (
+        "services.overflows"
+      );
+
+    for ( int i = 0; i < COUNT; i++ )
+      service.emit ( FAIL );
+
+    // only the signals are subscribed to and so
+    // only the signals channel can have overflowed
+
+    assertTrue (
+      context.overflows (
+        Services.Signal.class
+      ) > 0L
+    );
+
+    assertEquals (
+      0L,
+      context.overflows (
+        Services.Phenomenon.class
+      )
+    );
+
+    // those changes sampled with the mailbox full are
+    // dropped and so not counted as having been skipped
+
+    final long skipped =
+      context.skipped (
+        Services.Signal.class
+      );
+
+    assertTrue (
+      skipped > 0L
+    );
+
+    assertTrue (
+      context.overflows (
+        Services.Signal.class
+      ) > skipped
+    );
+
+    blocked.countDown ();
+
+    subscription.cancel ();
+
+  }
+
+  @Test
+  void status_rollup () {
+
+    // the roll-ups of a prefix emitted as
+    // a status of the prefix name
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path ->
+          Strings.EMIT.equals ( path.getValue () )
+          ? Optional.of ( true )
+          : Optional.empty ()
+      );
+
+    final Names.Name payments =
+      Names.of (
+        "payments"
+      );
+
+    final List< Services.Status > emitted =
+      new ArrayList<> ();
+
+    context.subscribe (
+      ( name, registrar ) -> {
+
+        if ( name == payments ) {
+
+          registrar.accept (
+            ( orientation, status ) ->
+              emitted.add ( status )
+          );
+
+        }
+
+      },
+      Services.Status.class
+    );
+
+    final Services.Service card =
+      context.service (
+        "payments.card"
+      );
+
+    context.service (
+      "payments.wallet"
+    );
+
+    // a service without a status is not rolled up
+
+    assertEquals (
+      NONE,
+      context.status (
+        payments
+      )
+    );
+
+    card.emit (
+      FAIL
+    );
+
+    final Services.Status status =
+      card.getStatus ();
+
+    assertNotSame (
+      NONE,
+      status
+    );
+
+    assertEquals (
+      status,
+      context.status (
+        payments
+      )
+    );
+
+    // the roll-up spans all of the ancestors of a service
+
+    context.service (
+      "payments.card.visa"
+    ).emit (
+      FAIL
+    );
+
+    assertEquals (
+      status,
+      context.status (
+        Names.of ( "payments.card" )
+      )
+    );
+
+    // the roll-up matches a scan of the services
+
+    assertEquals (
+      context.services ()
+        .filter ( service -> service.getName ().toString ().startsWith ( "payments." ) )
+        .map ( Services.Service::getStatus )
+        .max ( Comparator.naturalOrder () )
+        .orElse ( NONE ),
+      context.status (
+        payments
+      )
+    );
+
+    assertEquals (
+      Collections.singletonList ( status ),
+      emitted
+    );
+
+  }
+
+  @Test
+  void status_rollup_self () {
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    final Names.Name orders =
+      Names.of (
+        "orders"
+      );
+
+    context.service (
+      "orders.refund"
+    );
+
+    final Services.Service service =
+      context.service (
+        orders
+      );
+
+    service.emit (
+      FAIL
+    );
+
+    // the service named by the prefix is rolled up within the prefix
+
+    assertEquals (
+      service.getStatus (),
+      context.status (
+        orders
+      )
+    );
+
+    assertNotSame (
+      NONE,
+      context.status (
+        orders
+      )
+    );
+
+  }
+
+  @Test
+  void rollup_retire () {
+
+    final Contexts.Rollup rollup =
+      new Contexts.Rollup ();
+
+    final int defective =
+      Services.Status.DEFECTIVE.ordinal ();
+
+    assertTrue (
+      rollup.move (
+        0,
+        defective
+      )
+    );
+
+    // a roll-up holding a service is never retired
+
+    assertFalse (
+      rollup.retire ()
+    );
+
+    assertTrue (
+      rollup.move (
+        defective,
+        0
+      )
+    );
+
+    assertTrue (
+      rollup.retire ()
+    );
+
+    // a service is not moved into a retired roll-up
+
+    assertFalse (
+      rollup.move (
+        0,
+        defective
+      )
+    );
+
+    assertEquals (
+      NONE,
+      rollup.status ()
+    );
+
+  }
+
+  @Test
+  void subscribe_unlocked () {
+
+    final Contexts.Context context =
+      new Contexts.Context (
+        path -> Optional.empty ()
+      );
+
+    final Services.Service service =
+      context.service (
+        "subscribe.unlocked"
+      );
+
+    final AtomicBoolean bound =
+      new AtomicBoolean ();
+
+    // a subscriber is called without holding the lock of the service,
+    // so another thread can bind another subscriber to the service
+
+    context.subscribe (
+      ( name, registrar ) -> {
+
+        context.subscribe (
+          ( other, callbacks ) ->
+            callbacks.accept (
+              ( orientation, signal ) -> { /* nothing to do */ }
+            ),
+          Services.Signal.class
+        );
+
+        final Thread thread =
+          new Thread (
+            () ->
+              service.emit (
+                START
+              )
+          );
+
+        thread.start ();
+
+        try {
+
+          thread.join (
+            10_000L
+          );
+
+        } catch (
+          final InterruptedException error
+        ) {
+
+          Thread.currentThread ().interrupt ();
+
+        }
+
+        bound.set (
+          !thread.isAlive ()
+        );
+
+      },
+      Services.Status.class
+    );
+
+    service.emit (
+      FAIL
+    );
+
+    assertTrue (
+      bound.get ()
+    );
+
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Signal;
+import io.opensignals.services.Services.Subscription;
+import io.opensignals.services.ext.spi.alpha.Channels.Channel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
+import static io.opensignals.services.Services.Signal.START;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MailboxChannelTest {
+
+  private static final int COUNT = 100;
+
+  @Test
+  void dispatch_blocked_overflow ()
+  throws InterruptedException {
+
+    final Channel< Signal > channel =
+      Channels.mailbox (
+        Signal.class,
+        4
+      );
+
+    final CountDownLatch blocked =
+      new CountDownLatch (
+        1
+      );
+
+    final AtomicInteger slow =
+      new AtomicInteger ();
+
+    final AtomicInteger fast =
+      new AtomicInteger ();
+
+    // the slow subscriber blocks on its first change
+    // which must neither stall the producer nor the
+    // fast subscriber with its own mailbox
+
+    final Subscription subscription =
+      channel.subscribe (
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, signal ) -> {
+
+              slow.incrementAndGet ();
+
+              try {
+
+                blocked.await ();
+
+              } catch (
+                final InterruptedException error
+              ) {
+
+                Thread.currentThread ().interrupt ();
+
+              }
+
+            }
+          )
+      );
+
+    final CountDownLatch delivered =
+      new CountDownLatch (
+        COUNT
+      );
+
+    channel.subscribe (
+      ( name, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) -> {
+
+            fast.incrementAndGet ();
+
+            delivered.countDown ();
+
+          }
+        )
+    );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    for (
+      int i = 0;
+      i < COUNT;
+      i++
+    ) {
+
+      channel.accept (
+        name,
+        EMIT,
+        START
+      );
+
+      // allow the fast subscriber to keep up
+      // with its own mailbox of the same size
+
+      while ( fast.get () <= i - 2 )
+        //noinspection CallToThreadYield
+        Thread.yield ();
+
+    }
+
+    assertTrue (
+      delivered.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertTrue (
+      channel.overflows () > 0L
+    );
+
+    blocked.countDown ();
+
+    final long deadline =
+      System.nanoTime () + SECONDS.toNanos ( 10L );
+
+    while (
+      slow.get () + channel.overflows () < COUNT &&
+        System.nanoTime () < deadline
+    ) {
+
+      //noinspection CallToThreadYield
+      Thread.yield ();
+
+    }
+
+    assertEquals (
+      COUNT,
+      slow.get () + channel.overflows ()
+    );
+
+    subscription.cancel ();
+
+  }
+
+}
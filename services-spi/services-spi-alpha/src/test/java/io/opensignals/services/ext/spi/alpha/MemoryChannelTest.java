@@ -23,11 +23,16 @@ import io.opensignals.services.Services.Subscription;
 import io.opensignals.services.ext.spi.alpha.Channels.Channel;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.opensignals.services.Services.Orientation.EMIT;
 import static io.opensignals.services.Services.Orientation.RECEIPT;
 import static io.opensignals.services.Services.Signal.START;
 import static io.opensignals.services.Services.Signal.STOP;
+import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 final class MemoryChannelTest {
@@ -36,7 +41,9 @@ final class MemoryChannelTest {
   void subscribe_dispatch_cancel () {
 
     final Channel< Signal > channel =
-      Channels.memory ();
+      Channels.memory (
+        Signal.class
+      );
 
     final Closure closure =
       new Closure ();
@@ -136,6 +143,92 @@ final class MemoryChannelTest {
 
   }
 
+  @Test
+  void dispatch_scoped () {
+
+    final Channel< Signal > channel =
+      Channels.memory (
+        Signal.class
+      );
+
+    final Names.Name prefix =
+      Names.of (
+        getClass ()
+      ).name (
+        "scoped"
+      );
+
+    final List< Name > names =
+      new ArrayList<> ();
+
+    final Subscription subscription =
+      channel.subscribe (
+        prefix,
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, signal ) ->
+              names.add ( name )
+          )
+      );
+
+    final Names.Name inside =
+      prefix.name (
+        "a.b.c"
+      );
+
+    final Names.Name outside =
+      Names.of (
+        getClass ()
+      ).name (
+        "other.a.b.c"
+      );
+
+    channel.accept (
+      inside,
+      EMIT,
+      START
+    );
+
+    channel.accept (
+      outside,
+      EMIT,
+      START
+    );
+
+    channel.accept (
+      prefix,
+      EMIT,
+      START
+    );
+
+    subscription.cancel ();
+
+    channel.accept (
+      inside,
+      EMIT,
+      STOP
+    );
+
+    assertEquals (
+      asList (
+        inside,
+        prefix
+      ),
+      names
+    );
+
+
+    // the prefix is vacated with its last subscription
+    // leaving no subscriber interested in any value
+
+    assertFalse (
+      ( (Channels.Memory< Signal >) channel ).accepts (
+        STOP
+      )
+    );
+
+  }
+
   private static final class Closure {
 
     Name        name;
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Signal;
+import io.opensignals.services.Services.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
+import static io.opensignals.services.Services.Signal.START;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RegistryTest {
+
+  @Test
+  void cancel_compacts () {
+
+    final Subscriptions.Registry< Signal > registry =
+      Subscriptions.registry ();
+
+    final List< Integer > calls =
+      new ArrayList<> ();
+
+    final Subscription first =
+      registry.add (
+        ( name, orientation, signal ) ->
+          calls.add ( 1 )
+      );
+
+    final Subscription second =
+      registry.add (
+        ( name, orientation, signal ) ->
+          calls.add ( 2 )
+      );
+
+    final Subscription third =
+      registry.add (
+        ( name, orientation, signal ) ->
+          calls.add ( 3 )
+      );
+
+    second.cancel ();
+
+    registry.accept (
+      Names.of (
+        getClass ()
+      ),
+      EMIT,
+      START
+    );
+
+    assertEquals (
+      asList ( 1, 3 ),
+      calls
+    );
+
+    first.cancel ();
+    third.cancel ();
+
+    assertTrue (
+      registry.isEmpty ()
+    );
+
+    assertThrows (
+      IllegalStateException.class,
+      first::cancel
+    );
+
+  }
+
+  @Test
+  void failure_removes () {
+
+    final Subscriptions.Registry< Signal > registry =
+      Subscriptions.registry ();
+
+    registry.add (
+      ( name, orientation, signal ) -> {
+        throw new IllegalStateException ();
+      }
+    );
+
+    assertFalse (
+      registry.isEmpty ()
+    );
+
+    registry.accept (
+      Names.of (
+        getClass ()
+      ),
+      EMIT,
+      START
+    );
+
+    assertTrue (
+      registry.isEmpty ()
+    );
+
+  }
+
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Signal;
+import io.opensignals.services.Services.Subscription;
+import io.opensignals.services.ext.spi.alpha.Channels.Channel;
+import io.opensignals.services.ext.spi.alpha.Channels.Policy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
+import static io.opensignals.services.Services.Signal.*;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RingChannelTest {
+
+  private static final int COUNT = 10_000;
+
+  @Test
+  void dispatch_ordered ()
+  throws InterruptedException {
+
+    // a capacity much smaller than the
+    // number of events forces producers
+    // to wait on a full ring
+
+    final Channel< Signal > channel =
+      Channels.ring (
+        Signal.class,
+        16
+      );
+
+    final List< Signal > signals =
+      new ArrayList<> ( COUNT );
+
+    final CountDownLatch latch =
+      new CountDownLatch (
+        COUNT
+      );
+
+    channel.subscribe (
+      ( name, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) -> {
+
+            signals.add (
+              signal
+            );
+
+            latch.countDown ();
+
+          }
+        )
+    );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    for (
+      int i = 0;
+      i < COUNT;
+      i++
+    ) {
+
+      channel.accept (
+        name,
+        EMIT,
+        ( i & 1 ) == 0 ? START : STOP
+      );
+
+    }
+
+    assertTrue (
+      latch.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    for (
+      int i = 0;
+      i < COUNT;
+      i++
+    ) {
+
+      assertEquals (
+        ( i & 1 ) == 0 ? START : STOP,
+        signals.get ( i )
+      );
+
+    }
+
+  }
+
+  @Test
+  void dispatch_concurrent_cancel ()
+  throws InterruptedException {
+
+    final Channel< Signal > channel =
+      Channels.ring (
+        Signal.class,
+        64,
+        2
+      );
+
+    final List< Signal > signals =
+      Collections.synchronizedList (
+        new ArrayList<> ( COUNT )
+      );
+
+    final CountDownLatch latch =
+      new CountDownLatch (
+        COUNT
+      );
+
+    final Subscription subscription =
+      channel.subscribe (
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, signal ) -> {
+
+              signals.add (
+                signal
+              );
+
+              latch.countDown ();
+
+            }
+          )
+      );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    final Thread[] producers =
+      new Thread[4];
+
+    for (
+      int i = 0;
+      i < producers.length;
+      i++
+    ) {
+
+      producers[i] =
+        new Thread (
+          () -> {
+
+            for (
+              int j = COUNT / producers.length;
+              j > 0;
+              j--
+            ) {
+
+              channel.accept (
+                name,
+                EMIT,
+                FAIL
+              );
+
+            }
+
+          }
+        );
+
+      producers[i].start ();
+
+    }
+
+    for ( final Thread producer : producers )
+      producer.join ();
+
+    assertTrue (
+      latch.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertEquals (
+      COUNT,
+      signals.size ()
+    );
+
+    subscription.cancel ();
+
+    // a subscription is dispatched to after those added before
+    // it, so the dispatch to the cancelled subscription has been
+    // passed once the later subscription has received the signal
+
+    final CountDownLatch passed =
+      new CountDownLatch (
+        1
+      );
+
+    channel.subscribe (
+      ( subject, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) ->
+            passed.countDown ()
+        )
+    );
+
+    channel.accept (
+      name,
+      EMIT,
+      FAIL
+    );
+
+    assertTrue (
+      passed.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertEquals (
+      COUNT,
+      signals.size ()
+    );
+
+  }
+
+  @Test
+  void dispatch_batch ()
+  throws InterruptedException {
+
+    final Channel< Signal > channel =
+      Channels.ring (
+        Signal.class,
+        1024
+      );
+
+    final List< Signal > signals =
+      new ArrayList<> ( COUNT );
+
+    final CountDownLatch latch =
+      new CountDownLatch (
+        COUNT
+      );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    channel.subscribe (
+      ( count, names, orientations, values ) -> {
+
+        for (
+          int i = 0;
+          i < count;
+          i++
+        ) {
+
+          assertEquals (
+            name,
+            names[i]
+          );
+
+          signals.add (
+            values[i]
+          );
+
+          latch.countDown ();
+
+        }
+
+      }
+    );
+
+    for (
+      int i = 0;
+      i < COUNT;
+      i++
+    ) {
+
+      channel.accept (
+        name,
+        EMIT,
+        ( i & 1 ) == 0 ? START : STOP
+      );
+
+    }
+
+    assertTrue (
+      latch.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    for (
+      int i = 0;
+      i < COUNT;
+      i++
+    ) {
+
+      assertEquals (
+        ( i & 1 ) == 0 ? START : STOP,
+        signals.get ( i )
+      );
+
+    }
+
+  }
+
+  @Test
+  void dispatch_parked ()
+  throws InterruptedException {
+
+    final Set< Thread > threads =
+      Thread.getAllStackTraces ().keySet ();
+
+    final Channel< Signal > channel =
+      Channels.ring (
+        Signal.class,
+        16
+      );
+
+    final Thread dispatcher =
+      Thread.getAllStackTraces ()
+        .keySet ()
+        .stream ()
+        .filter ( thread -> !threads.contains ( thread ) )
+        .filter ( thread -> thread.getName ().startsWith ( "opensignals-services-channel-" ) )
+        .filter ( thread -> !thread.getName ().endsWith ( "reaper" ) )
+        .findFirst ()
+        .orElseThrow ( AssertionError::new );
+
+    final CountDownLatch latch =
+      new CountDownLatch (
+        1
+      );
+
+    channel.subscribe (
+      ( name, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) ->
+            latch.countDown ()
+        )
+    );
+
+    // an idle dispatcher parks without a timeout
+    // and is woken by the publishing of an event
+
+    awaitParked (
+      dispatcher
+    );
+
+    channel.accept (
+      Names.of (
+        getClass ()
+      ),
+      EMIT,
+      START
+    );
+
+    assertTrue (
+      latch.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    awaitParked (
+      dispatcher
+    );
+
+  }
+
+  private static void awaitParked (
+    final Thread thread
+  )
+  throws InterruptedException {
+
+    for (
+      int i = 0;
+      i < 1000 && thread.getState () != Thread.State.WAITING;
+      i++
+    ) {
+
+      Thread.sleep (
+        10L
+      );
+
+    }
+
+    assertEquals (
+      Thread.State.WAITING,
+      thread.getState ()
+    );
+
+  }
+
+  @Test
+  void policy_block_dispatcher ()
+  throws InterruptedException {
+
+    final Channel< Signal > channel =
+      Channels.ring (
+        Signal.class,
+        4,
+        1,
+        Policy.BLOCK,
+        1
+      );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    final CountDownLatch latch =
+      new CountDownLatch (
+        1
+      );
+
+    // a subscriber firing more changes than the ring holds from
+    // within the dispatcher has those beyond the capacity dropped
+    // rather than waiting forever on its own drain
+
+    channel.subscribe (
+      ( subject, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) -> {
+
+            if ( signal == START ) {
+
+              for ( int i = 0; i < COUNT; i++ )
+                channel.accept ( name, EMIT, FAIL );
+
+              latch.countDown ();
+
+            }
+
+          }
+        )
+    );
+
+    channel.accept (
+      name,
+      EMIT,
+      START
+    );
+
+    assertTrue (
+      latch.await (
+        10L,
+        SECONDS
+      )
+    );
+
+    assertTrue (
+      ( (Channels.Ring< Signal >) channel ).overflows () > 0L
+    );
+
+  }
+
+  @Test
+  void policy_drop_newest () {
+
+    assertEquals (
+      asList ( 0, 1, 2, 3 ),
+      publish (
+        Policy.DROP_NEWEST,
+        1,
+        0L
+      )
+    );
+
+  }
+
+  @Test
+  void policy_drop_oldest () {
+
+    assertEquals (
+      asList ( 6, 7, 8, 9 ),
+      publish (
+        Policy.DROP_OLDEST,
+        1,
+        0L
+      )
+    );
+
+  }
+
+  @Test
+  void policy_sample () {
+
+    // once over half full only every second change
+    // is published, with those sampled once full
+    // being dropped rather than skipped
+
+    assertEquals (
+      asList ( 0, 1, 2, 4 ),
+      publish (
+        Policy.SAMPLE,
+        2,
+        4L
+      )
+    );
+
+  }
+
+  /*
+   * Publishes ten changes into a ring of four without
+   * a dispatcher running, returning the ordinals drained.
+   */
+
+  private List< Integer > publish (
+    final Policy policy,
+    final int sample,
+    final long skipped
+  ) {
+
+    final Signal[] values =
+      Signal.values ();
+
+    final Channels.Ring< Signal > ring =
+      new Channels.Ring<> (
+        Signal.class,
+        4,
+        policy,
+        sample,
+        new Channels.Overflows ()
+      );
+
+    final List< Integer > ordinals =
+      new ArrayList<> ();
+
+    ring.attach (
+      ( name, orientation, signal ) ->
+        ordinals.add (
+          signal.ordinal ()
+        )
+    );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    for (
+      int i = 0;
+      i < 10;
+      i++
+    ) {
+
+      ring.accept (
+        name,
+        EMIT,
+        values[i]
+      );
+
+    }
+
+    ring.drain (
+      ring.chunk (
+        16
+      )
+    );
+
+    assertEquals (
+      10L,
+      ordinals.size () + ring.overflows ()
+    );
+
+    assertEquals (
+      skipped,
+      ring.skipped ()
+    );
+
+    return
+      ordinals;
+
+  }
+
+}
@@ -0,0 +1,875 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Environment;
+import io.opensignals.services.Services.Status;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Card;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Detector;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Deviations;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.ScoringEngine;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Slab;
+import io.opensignals.services.ext.spi.alpha.ScoreCards.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static io.opensignals.services.Services.Signal.DISCONNECT;
+import static io.opensignals.services.Services.Signal.FAIL;
+import static io.opensignals.services.Services.Signal.RECOURSE;
+import static io.opensignals.services.Services.Signal.START;
+import static io.opensignals.services.Services.Signal.SUCCEED;
+import static io.opensignals.services.Services.Status.DEFECTIVE;
+import static io.opensignals.services.Services.Status.DEGRADED;
+import static io.opensignals.services.Services.Status.DOWN;
+import static io.opensignals.services.Services.Status.NONE;
+import static io.opensignals.services.Services.Status.OK;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ScoreCardTest {
+
+  private static final Environment EMPTY =
+    path -> empty ();
+
+  // every status total has a half-life of a millisecond
+  private static final Environment DECAY =
+    path ->
+      Strings.HALFLIFE.equals ( path.getValue () )
+      ? Optional.of ( 1 )
+      : empty ();
+
+  private static final int THREADS = 4;
+  private static final int COUNT   = 10_000;
+
+  // the wait for a card to change status with the passing of time
+  private static final long DEADLINE = SECONDS.toNanos ( 10L );
+
+  /*
+   * Evaluates the card until it changes to the status, with time passing
+   * in between evaluations, failing if not changed within the deadline.
+   */
+
+  private static void evaluates (
+    final Card card,
+    final Status status
+  )
+  throws InterruptedException {
+
+    await (
+      () -> card.evaluate () == status
+    );
+
+  }
+
+  private static void await (
+    final BooleanSupplier condition
+  )
+  throws InterruptedException {
+
+    final long deadline =
+      System.nanoTime () + DEADLINE;
+
+    while ( !condition.getAsBoolean () ) {
+
+      assertTrue (
+        System.nanoTime () - deadline < 0L
+      );
+
+      Thread.sleep (
+        1L
+      );
+
+    }
+
+  }
+
+  private static Card card () {
+
+    return
+      card (
+        EMPTY
+      );
+
+  }
+
+  private static Card card (
+    final Type type
+  ) {
+
+    return
+      ScoreCards.engine (
+        path ->
+          Strings.ENGINE.equals ( path.getValue () )
+          ? Optional.of ( type )
+          : empty ()
+      ).card ();
+
+  }
+
+  private static Card card (
+    final Environment environment
+  ) {
+
+    return
+      ScoreCards.card (
+        ScoreCards.scoring (
+          environment
+        )
+      );
+
+  }
+
+  @Test
+  void score_transitions () {
+
+    final Card card =
+      card ();
+
+    assertNull (
+      card.score (
+        START
+      )
+    );
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+    assertNull (
+      card.score (
+        SUCCEED
+      )
+    );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    assertNull (
+      card.score (
+        FAIL
+      )
+    );
+
+  }
+
+  @Test
+  void score_selects () {
+
+    final Card card =
+      card ();
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    // a recourse scores half of a failure so it
+    // takes two to overtake the decayed failure
+
+    assertNull (
+      card.score (
+        RECOURSE
+      )
+    );
+
+    assertEquals (
+      DEGRADED,
+      card.score (
+        RECOURSE
+      )
+    );
+
+  }
+
+  @Test
+  void score_recovers () {
+
+    final Card card =
+      card ();
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    // the failure total of 16 retains three quarters, truncated,
+    // on each success (12, 9, 6, 4, 3, 2, 1) with the success total
+    // not retained at all, so only the seventh success outscores it
+
+    for ( int i = 0; i < 6; i++ ) {
+
+      assertNull (
+        card.score (
+          SUCCEED
+        )
+      );
+
+    }
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+  }
+
+  @Test
+  void score_decays ()
+  throws InterruptedException {
+
+    final Card card =
+      card (
+        DECAY
+      );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    // once enough half-lives have passed for
+    // the total to fall below half a unit
+
+    evaluates (
+      card,
+      NONE
+    );
+
+    assertEquals (
+      NONE,
+      card.status ()
+    );
+
+    assertNull (
+      card.evaluate ()
+    );
+
+  }
+
+  @Test
+  void score_decays_per_signal () {
+
+    // no total is retained on a scored signal
+
+    final Card card =
+      card (
+        path ->
+          Strings.DECAY.equals ( path.getValue () )
+          ? Optional.of ( 0 )
+          : empty ()
+      );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    assertEquals (
+      DEGRADED,
+      card.score (
+        RECOURSE
+      )
+    );
+
+  }
+
+  @Test
+  void ewma_transitions () {
+
+    final Card card =
+      card (
+        Type.EWMA
+      );
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    // the error ratio of a tenth decays by
+    // a tenth on each success down to within
+    // the threshold of one in twenty
+
+    for ( int i = 0; i < 6; i++ ) {
+
+      assertNull (
+        card.score (
+          SUCCEED
+        )
+      );
+
+    }
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+  }
+
+  @Test
+  void score_refresh ()
+  throws InterruptedException {
+
+    final AtomicBoolean decay =
+      new AtomicBoolean ();
+
+    final Environment environment =
+      path ->
+        decay.get ()
+        ? DECAY.getObject ( path )
+        : EMPTY.getObject ( path );
+
+    final ScoringEngine engine =
+      ScoreCards.engine (
+        environment
+      );
+
+    final Card card =
+      engine.card ();
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    decay.set (
+      true
+    );
+
+    engine.refresh (
+      environment
+    );
+
+    // the status is kept while the totals, of an
+    // earlier half-life, are cleared on a refresh
+
+    assertEquals (
+      DEFECTIVE,
+      card.status ()
+    );
+
+    assertEquals (
+      NONE,
+      card.evaluate ()
+    );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    evaluates (
+      card,
+      NONE
+    );
+
+  }
+
+  @Test
+  void ewma_refresh () {
+
+    final AtomicReference< Float > threshold =
+      new AtomicReference<> (
+        0.05F
+      );
+
+    final Environment environment =
+      path -> {
+
+        final String value =
+          path.getValue ();
+
+        return
+          Strings.ENGINE.equals ( value )
+          ? Optional.of ( Type.EWMA )
+          : Strings.THRESHOLD.equals ( value )
+            ? Optional.of ( threshold.get () )
+            : empty ();
+
+      };
+
+    final ScoringEngine engine =
+      ScoreCards.engine (
+        environment
+      );
+
+    final Card card =
+      engine.card ();
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    threshold.set (
+      0.5F
+    );
+
+    engine.refresh (
+      environment
+    );
+
+    // the error ratio is now well within the threshold
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+  }
+
+  @Test
+  void window_transitions () {
+
+    final Card card =
+      card (
+        Type.WINDOW
+      );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    // a recourse counts half of a failure and
+    // ties go to the more severe status
+
+    assertNull (
+      card.score (
+        RECOURSE
+      )
+    );
+
+    assertNull (
+      card.score (
+        RECOURSE
+      )
+    );
+
+    assertEquals (
+      DEGRADED,
+      card.score (
+        RECOURSE
+      )
+    );
+
+  }
+
+  @Test
+  void rate_transitions () {
+
+    final Card card =
+      card (
+        Type.RATE
+      );
+
+    assertEquals (
+      OK,
+      card.score (
+        SUCCEED
+      )
+    );
+
+    for ( int i = 0; i < 18; i++ ) {
+
+      assertNull (
+        card.score (
+          SUCCEED
+        )
+      );
+
+    }
+
+    // a failure rate of five percent is
+    // not over the rate of the failure
+
+    assertNull (
+      card.score (
+        FAIL
+      )
+    );
+
+    assertEquals (
+      DEFECTIVE,
+      card.score (
+        FAIL
+      )
+    );
+
+    assertEquals (
+      DOWN,
+      card.score (
+        DISCONNECT
+      )
+    );
+
+  }
+
+  @Test
+  void bucket_transitions ()
+  throws InterruptedException {
+
+    final Card card =
+      card (
+        Type.BUCKET
+      );
+
+    // a failure is tolerated by the bucket
+
+    assertEquals (
+      OK,
+      card.score (
+        FAIL
+      )
+    );
+
+    assertEquals (
+      DOWN,
+      card.score (
+        DISCONNECT
+      )
+    );
+
+    assertNull (
+      card.score (
+        FAIL
+      )
+    );
+
+    // once the bucket has leaked the disconnect
+
+    evaluates (
+      card,
+      OK
+    );
+
+  }
+
+  @Test
+  void deferred_transitions ()
+  throws InterruptedException {
+
+    final Card card =
+      ScoreCards.engine (
+        path ->
+          Strings.CADENCE.equals ( path.getValue () )
+          ? Optional.of ( 1 )
+          : empty ()
+      ).card ();
+
+    // the signal is only counted with the
+    // scoring left to the evaluator thread
+
+    assertNull (
+      card.score (
+        FAIL
+      )
+    );
+
+    await (
+      () -> card.status () == DEFECTIVE
+    );
+
+    assertNull (
+      card.evaluate ()
+    );
+
+  }
+
+  @Test
+  void engine_accepts () {
+
+    // a service is only given a card on its first
+    // signal accepted, or scored, by the engine
+
+    for ( final Type type : Type.values () ) {
+
+      final ScoringEngine engine =
+        ScoreCards.engine (
+          path ->
+            Strings.ENGINE.equals ( path.getValue () )
+            ? Optional.of ( type )
+            : empty ()
+        );
+
+      assertFalse (
+        engine.accepts (
+          START
+        )
+      );
+
+      assertTrue (
+        engine.accepts (
+          FAIL
+        )
+      );
+
+    }
+
+  }
+
+  @Test
+  void detector_opted () {
+
+    // the detection of deviations is off unless a sigma is configured
+
+    assertFalse (
+      ScoreCards.engine (
+        path -> empty ()
+      ) instanceof Deviations
+    );
+
+    assertTrue (
+      ScoreCards.engine (
+        path ->
+          Strings.SIGMA.equals ( path.getValue () )
+          ? Optional.of ( 3.0F )
+          : empty ()
+      ) instanceof Deviations
+    );
+
+  }
+
+  @Test
+  void detector_deviates () {
+
+    final Detector detector =
+      new Detector (
+        3.0F,
+        0.1F,
+        5
+      );
+
+    final int id =
+      detector.allocate (
+        0
+      );
+
+    // a steady count of a hundred per window
+
+    for ( int tick = 0; tick < 10; tick++ ) {
+
+      assertFalse (
+        detector.count (
+          id,
+          tick,
+          100
+        )
+      );
+
+    }
+
+    // the spike is only folded in on the
+    // closing of its window by a later tick
+
+    assertFalse (
+      detector.count (
+        id,
+        10,
+        200
+      )
+    );
+
+    assertTrue (
+      detector.count (
+        id,
+        11,
+        100
+      )
+    );
+
+    assertTrue (
+      detector.deviating ( id )
+    );
+
+    assertTrue (
+      detector.count (
+        id,
+        12,
+        0
+      )
+    );
+
+    assertFalse (
+      detector.deviating ( id )
+    );
+
+  }
+
+  @Test
+  void slab_allocate () {
+
+    final Slab slab =
+      new Slab (
+        2
+      );
+
+    // spanning a number of (doubling) chunks
+
+    for ( int i = 0; i < 1_000; i++ ) {
+
+      final int id =
+        slab.allocate ();
+
+      assertEquals (
+        i,
+        id
+      );
+
+      slab.chunk ( id ).set (
+        slab.base ( id ) + 1,
+        id
+      );
+
+    }
+
+    for ( int id = 0; id < 1_000; id++ ) {
+
+      assertEquals (
+        id,
+        slab.chunk ( id ).get (
+          slab.base ( id ) + 1
+        )
+      );
+
+    }
+
+    // a released id is cleared and reused
+
+    slab.release (
+      500
+    );
+
+    assertEquals (
+      500,
+      slab.allocate ()
+    );
+
+    assertEquals (
+      0L,
+      slab.chunk ( 500 ).get (
+        slab.base ( 500 ) + 1
+      )
+    );
+
+    assertEquals (
+      1_000,
+      slab.allocate ()
+    );
+
+  }
+
+  @Test
+  void score_concurrent ()
+  throws InterruptedException {
+
+    final Card card =
+      card ();
+
+    final AtomicInteger transitions =
+      new AtomicInteger ();
+
+    final Thread[] threads =
+      new Thread[THREADS];
+
+    for ( int i = 0; i < THREADS; i++ ) {
+
+      threads[i] =
+        new Thread (
+          () -> {
+
+            for ( int j = 0; j < COUNT; j++ ) {
+
+              final Status status =
+                card.score (
+                  FAIL
+                );
+
+              if ( status != null )
+                transitions.incrementAndGet ();
+
+            }
+
+          }
+        );
+
+      threads[i].start ();
+
+    }
+
+    for ( final Thread thread : threads )
+      thread.join ();
+
+    // only the one thread winning the
+    // transition to defective reports it
+
+    assertEquals (
+      1,
+      transitions.get ()
+    );
+
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2020 OpenSignals Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package io.opensignals.services.ext.spi.alpha;
+
+import io.opensignals.services.Services.Signal;
+import io.opensignals.services.Services.Subscription;
+import io.opensignals.services.ext.spi.alpha.Channels.Channel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.opensignals.services.Services.Orientation.EMIT;
+import static io.opensignals.services.Services.Signal.START;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class SubscriberTest {
+
+  @Test
+  void resolve_once_per_name () {
+
+    final Channel< Signal > channel =
+      Channels.memory (
+        Signal.class
+      );
+
+    final AtomicInteger resolved =
+      new AtomicInteger ();
+
+    final AtomicInteger accepted =
+      new AtomicInteger ();
+
+    channel.subscribe (
+      ( name, registrar ) -> {
+
+        resolved.incrementAndGet ();
+
+        registrar.accept (
+          ( orientation, signal ) ->
+            accepted.incrementAndGet ()
+        );
+
+      }
+    );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    for ( int i = 0; i < 10; i++ ) {
+
+      channel.accept (
+        name,
+        EMIT,
+        START
+      );
+
+    }
+
+    assertEquals (
+      1,
+      resolved.get ()
+    );
+
+    assertEquals (
+      10,
+      accepted.get ()
+    );
+
+  }
+
+  @Test
+  void resolve_after_cancel () {
+
+    final Channel< Signal > channel =
+      Channels.memory (
+        Signal.class
+      );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      ).name (
+        "cancel"
+      );
+
+    final AtomicInteger first =
+      new AtomicInteger ();
+
+    final Subscription subscription =
+      channel.subscribe (
+        ( n, registrar ) ->
+          registrar.accept (
+            ( orientation, signal ) ->
+              first.incrementAndGet ()
+          )
+      );
+
+    channel.accept (
+      name,
+      EMIT,
+      START
+    );
+
+    subscription.cancel ();
+
+    // the next subscription is likely
+    // to be assigned the recycled id
+
+    final AtomicInteger second =
+      new AtomicInteger ();
+
+    channel.subscribe (
+      ( n, registrar ) ->
+        registrar.accept (
+          ( orientation, signal ) ->
+            second.incrementAndGet ()
+        )
+    );
+
+    channel.accept (
+      name,
+      EMIT,
+      START
+    );
+
+    assertEquals (
+      1,
+      first.get ()
+    );
+
+    assertEquals (
+      1,
+      second.get ()
+    );
+
+  }
+
+  @Test
+  void batch_reused () {
+
+    final Channel< Signal > channel =
+      Channels.memory (
+        Signal.class
+      );
+
+    final List< Object > batches =
+      new ArrayList<> ();
+
+    channel.subscribe (
+      ( count, names, orientations, values ) -> {
+
+        assertEquals (
+          1,
+          count
+        );
+
+        batches.add (
+          values
+        );
+
+      }
+    );
+
+    final Names.Name name =
+      Names.of (
+        getClass ()
+      );
+
+    channel.accept (
+      name,
+      EMIT,
+      START
+    );
+
+    channel.accept (
+      name,
+      EMIT,
+      START
+    );
+
+    // a change dispatched singly on a synchronous
+    // channel reuses the arrays of the last change
+
+    assertSame (
+      batches.get ( 0 ),
+      batches.get ( 1 )
+    );
+
+  }
+
+}
@@ -22,6 +22,8 @@ import io.opensignals.services.Services.Subscription;
 import io.opensignals.services.testkit.TestKit.Closure;
 import org.junit.jupiter.api.Test;
 
+import java.util.EnumSet;
+
 import static io.opensignals.services.Services.Orientation.EMIT;
 import static io.opensignals.services.Services.Orientation.RECEIPT;
 import static io.opensignals.services.Services.Signal.*;
@@ -88,4 +90,104 @@ final class SubscriberTest
 
   }
 
+  @Test
+  void subscribe_signals_filtered () {
+
+    final Closure< Signal > closure =
+      new Closure<> ();
+
+    final Subscription subscription =
+      context.subscribe (
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, value ) -> {
+              closure.capture =
+                capture (
+                  name,
+                  orientation,
+                  value,
+                  closure.capture
+                );
+            }
+          ),
+        Signal.class,
+        EnumSet.of (
+          SUCCEED,
+          STOP
+        )
+      );
+
+    // an unscored signal is filtered on so as to not
+    // change the status of the services shared by tests
+
+    s1.start ();
+    s2.call ();
+    s2.succeeded ();
+    s1.stop ();
+
+    subscription.cancel ();
+
+    s1.stop ();
+
+    assertEquals (
+      capture (
+        s2.getName (),
+        RECEIPT,
+        SUCCEED
+      ).to (
+        s1.getName (),
+        EMIT,
+        STOP
+      ),
+      closure.capture
+    );
+
+  }
+
+  @Test
+  void subscribe_prefix () {
+
+    final Closure< Signal > closure =
+      new Closure<> ();
+
+    final Subscription subscription =
+      context.subscribe (
+        S1_NAME,
+        ( name, registrar ) ->
+          registrar.accept (
+            ( orientation, value ) -> {
+              closure.capture =
+                capture (
+                  name,
+                  orientation,
+                  value,
+                  closure.capture
+                );
+            }
+          ),
+        Signal.class
+      );
+
+    s1.start ();
+    s2.start ();
+    s1.stop ();
+
+    subscription.cancel ();
+
+    s1.start ();
+
+    assertEquals (
+      capture (
+        s1.getName (),
+        EMIT,
+        START
+      ).to (
+        EMIT,
+        STOP
+      ),
+      closure.capture
+    );
+
+  }
+
 }